@@ -0,0 +1,80 @@
+package org.paumard.elevator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.paumard.elevator.BuildingConfig;
+import org.paumard.elevator.ElevatorController;
+import org.paumard.elevator.event.Event;
+import org.paumard.elevator.model.Person;
+import org.paumard.elevator.model.RandomStreams;
+import org.paumard.elevator.model.Route;
+import org.paumard.elevator.model.WaitingList;
+import org.paumard.elevator.student.DumbElevator;
+import org.paumard.elevator.system.BoardingConflicts;
+import org.paumard.elevator.system.ElevatorAdapter;
+import org.paumard.elevator.system.Elevators;
+import org.paumard.elevator.system.ShadowElevators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.paumard.elevator.Building.ELEVATOR_CAPACITY;
+import static org.paumard.elevator.Building.MAX_FLOOR;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardingConflictsBenchmark {
+
+    @Param({"2", "8"})
+    int numberOfElevators;
+
+    @Param({"20", "200"})
+    int peopleWaiting;
+
+    private WaitingList waitingList;
+    private ShadowElevators shadowElevators;
+    private List<Event.LoadingAttempt> concurrentEvents;
+
+    // the step takes the people off the floor, so each call starts from a fresh floor
+    @Setup(Level.Invocation)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(10L);
+        waitingList = WaitingList.getInstance(BuildingConfig.getDefault(), new RandomStreams(10L));
+        for (int count = 0; count < peopleWaiting; count++) {
+            waitingList.addPersonToFloor(1, new Person(0L, "Person", random.nextInt(2, MAX_FLOOR + 1)));
+        }
+        List<ElevatorController> controllers = new ArrayList<>();
+        for (int index = 0; index < numberOfElevators; index++) {
+            controllers.add(new ElevatorAdapter(new DumbElevator(ELEVATOR_CAPACITY, "Elevator " + index)));
+        }
+        shadowElevators = new ShadowElevators(new Elevators(controllers), BuildingConfig.getDefault(), waitingList);
+        concurrentEvents = new ArrayList<>();
+        for (int index = 0; index < numberOfElevators; index++) {
+            // the elevators serve the floors in different orders
+            Route route = new Route();
+            for (int floor = 0; floor < MAX_FLOOR - 1; floor++) {
+                route.addLast(2 + (floor + index) % (MAX_FLOOR - 1));
+            }
+            concurrentEvents.add(new Event.AttemptToLoadFirstPerson(index, 1, route));
+        }
+    }
+
+    @Benchmark
+    public List<Event.LoadingAttempt> assignPeopleAtFloor() {
+        BoardingConflicts.assignPeopleAtFloor(waitingList, shadowElevators, 1, concurrentEvents);
+        return concurrentEvents;
+    }
+}
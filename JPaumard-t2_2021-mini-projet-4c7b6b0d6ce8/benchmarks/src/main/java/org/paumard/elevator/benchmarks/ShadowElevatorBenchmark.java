@@ -0,0 +1,70 @@
+package org.paumard.elevator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.paumard.elevator.BuildingConfig;
+import org.paumard.elevator.model.Person;
+import org.paumard.elevator.model.RandomStreams;
+import org.paumard.elevator.model.WaitingList;
+import org.paumard.elevator.system.ElevatorStats;
+import org.paumard.elevator.system.ShadowElevator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.paumard.elevator.Building.ELEVATOR_CAPACITY;
+import static org.paumard.elevator.Building.ELEVATOR_LOADING_CAPACITY;
+import static org.paumard.elevator.Building.MAX_FLOOR;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShadowElevatorBenchmark {
+
+    private ShadowElevator shadowElevator;
+    private List<List<Person>> batches;
+
+    @Setup
+    public void setUp() {
+        WaitingList waitingList = WaitingList.getInstance(BuildingConfig.getDefault(), new RandomStreams(10L));
+        shadowElevator = new ShadowElevator(0, BuildingConfig.getDefault(), "Benchmark", waitingList, new ElevatorStats(1));
+        // a full elevator, loaded by groups as the engine does, with people going to all the floors
+        batches = new ArrayList<>();
+        List<Person> batch = new ArrayList<>();
+        for (int index = 0; index < ELEVATOR_CAPACITY; index++) {
+            batch.add(new Person(0L, "Person", 2 + index % (MAX_FLOOR - 1)));
+            if (batch.size() == ELEVATOR_LOADING_CAPACITY) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+    }
+
+    // fills the elevator, then empties it floor by floor
+    @Benchmark
+    public int loadAndUnload() {
+        for (List<Person> people : batches) {
+            shadowElevator.loadPeople(people);
+        }
+        for (int floor = 2; floor <= MAX_FLOOR; floor++) {
+            List<Person> people = shadowElevator.getNextPeopleToUnload(floor);
+            while (!people.isEmpty()) {
+                shadowElevator.unload(people);
+                people = shadowElevator.getNextPeopleToUnload(floor);
+            }
+        }
+        return shadowElevator.getNumberOfPeople();
+    }
+}
@@ -0,0 +1,64 @@
+package org.paumard.elevator.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.paumard.elevator.BuildingConfig;
+import org.paumard.elevator.model.ArrivalGenerator;
+import org.paumard.elevator.model.Arrivals;
+import org.paumard.elevator.model.RandomStreams;
+import org.paumard.elevator.student.DumbElevator;
+import org.paumard.elevator.system.SimulationEngine;
+import org.paumard.elevator.system.SimulationLog;
+
+import static org.paumard.elevator.Building.SEED;
+
+// reads files/, so it has to be run from the root of the project
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SimulatedDayBenchmark {
+
+    private static final BuildingConfig CONFIG = BuildingConfig.getDefault();
+
+    private Arrivals arrivals;
+
+    // reported by JMH as simulated seconds per wall second
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class SimulatedTime {
+
+        public long simulatedSeconds;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            simulatedSeconds = 0L;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        arrivals = new ArrivalGenerator(CONFIG, new RandomStreams(SEED)).generate(CONFIG.getStartTime(), CONFIG.getEndTime());
+    }
+
+    @Benchmark
+    public int simulateDay(SimulatedTime simulatedTime) {
+        SimulationEngine engine = new SimulationEngine(CONFIG, SEED, SimulationLog.off());
+        engine.setArrivals(arrivals);
+        engine.addElevator(new DumbElevator(CONFIG.getElevatorCapacity(), "Dumb 1"));
+        engine.addElevator(new DumbElevator(CONFIG.getElevatorCapacity(), "Dumb 2"));
+        engine.run();
+        simulatedTime.simulatedSeconds += engine.getTime() - engine.getStartTime();
+        return engine.getWaitingList().countPeople();
+    }
+}
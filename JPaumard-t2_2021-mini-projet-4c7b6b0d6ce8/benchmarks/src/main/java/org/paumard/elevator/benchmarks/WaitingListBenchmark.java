@@ -0,0 +1,87 @@
+package org.paumard.elevator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.paumard.elevator.BuildingConfig;
+import org.paumard.elevator.model.Person;
+import org.paumard.elevator.model.RandomStreams;
+import org.paumard.elevator.model.Route;
+import org.paumard.elevator.model.WaitingList;
+import org.paumard.elevator.model.WaitingListView;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.paumard.elevator.Building.MAX_FLOOR;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaitingListBenchmark {
+
+    @Param({"10", "100"})
+    int peoplePerFloor;
+
+    private WaitingList waitingList;
+    private Route route;
+    private Person[] people;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(10L);
+        waitingList = WaitingList.getInstance(BuildingConfig.getDefault(), new RandomStreams(10L));
+        for (int floor = 1; floor <= MAX_FLOOR; floor++) {
+            for (int count = 0; count < peoplePerFloor; count++) {
+                waitingList.addPersonToFloor(floor, randomPerson(random, floor));
+            }
+        }
+        route = Route.of(4, 7, 10);
+        people = new Person[1024];
+        for (int index = 0; index < people.length; index++) {
+            people[index] = randomPerson(random, 1);
+        }
+    }
+
+    private static Person randomPerson(SplittableRandom random, int floor) {
+        int destinationFloor = random.nextInt(1, MAX_FLOOR);
+        if (destinationFloor >= floor) {
+            destinationFloor++;
+        }
+        return new Person(0L, "Person", destinationFloor);
+    }
+
+    @Benchmark
+    public List<Person> getNextLoadablePeople() {
+        return waitingList.getNextLoadablePeople(route, 1);
+    }
+
+    // someone arrives and leaves at the first floor, so the size of the floor does not change
+    @Benchmark
+    public int addAndRemovePerson() {
+        Person person = people[next++ & (people.length - 1)];
+        waitingList.addPersonToFloor(1, person);
+        waitingList.removePersonFromFloor(1, List.of(person));
+        return waitingList.countPeople();
+    }
+
+    // the view handed to the controllers after someone arrived
+    @Benchmark
+    public List<List<Person>> getLists() {
+        Person person = people[next++ & (people.length - 1)];
+        waitingList.addPersonToFloor(1, person);
+        waitingList.removePeopleFromFloor(1, person);
+        WaitingListView view = waitingList.getView();
+        return view.getLists();
+    }
+}
@@ -0,0 +1,74 @@
+package org.paumard.elevator.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventQueueTest {
+
+    @Test
+    void eventsAtTheSameTimeComeOutInTheOrderTheyWereAdded() {
+        EventQueue events = new EventQueue();
+        for (int index = 0; index < 100; index++) {
+            events.add(10L, new Event.ElevatorStarts(index));
+        }
+
+        List<Event> polledEvents = new ArrayList<>();
+        events.pollAllAt(10L, polledEvents);
+
+        assertEquals(100, polledEvents.size());
+        for (int index = 0; index < 100; index++) {
+            assertEquals(new Event.ElevatorStarts(index), polledEvents.get(index));
+        }
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void interleavedTimesComeOutOrderedAcrossAResize() {
+        EventQueue events = new EventQueue();
+        // more events than the initial capacity, added at times that go back and forth
+        for (int index = 0; index < 40; index++) {
+            long time = index % 2 == 0 ? 100L - index : index;
+            events.add(time, new Event.ElevatorStarts(index));
+        }
+        // added after the resize, at the same time as the ones at 21
+        events.add(21L, new Event.ElevatorStarts(40));
+
+        assertEquals(41, events.size());
+        long previousTime = Long.MIN_VALUE;
+        List<Event> polledEvents = new ArrayList<>();
+        while (!events.isEmpty()) {
+            long time = events.peekTime();
+            assertTrue(time > previousTime);
+            polledEvents.clear();
+            events.pollAllAt(time, polledEvents);
+            if (time == 21L) {
+                assertEquals(List.of(new Event.ElevatorStarts(21), new Event.ElevatorStarts(40)), polledEvents);
+            } else {
+                assertEquals(1, polledEvents.size());
+            }
+            previousTime = time;
+        }
+    }
+
+    @Test
+    void pollingAnEmptyQueueFails() {
+        EventQueue events = new EventQueue();
+        events.add(5L, new Event.ElevatorStarts(0));
+        events.poll();
+
+        assertTrue(events.isEmpty());
+        assertThrows(NoSuchElementException.class, events::poll);
+        assertThrows(NoSuchElementException.class, events::peekTime);
+
+        List<Event> polledEvents = new ArrayList<>();
+        events.pollAllAt(5L, polledEvents);
+        assertTrue(polledEvents.isEmpty());
+    }
+}
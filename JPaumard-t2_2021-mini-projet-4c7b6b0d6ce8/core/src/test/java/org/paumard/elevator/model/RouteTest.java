@@ -0,0 +1,88 @@
+package org.paumard.elevator.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteTest {
+
+    @Test
+    void ringBufferWrapsAroundAfterManyRemovesAndAdds() {
+        Route route = Route.of(1, 2, 3, 4, 5, 6);
+        Deque<Integer> expected = new ArrayDeque<>(List.of(1, 2, 3, 4, 5, 6));
+        // the head goes around the buffer of 8 floors many times, and the route grows from time to time
+        for (int step = 0; step < 100; step++) {
+            assertEquals(expected.pollFirst(), route.removeFirst());
+            int floor = step % 10 + 1;
+            route.addLast(floor);
+            expected.addLast(floor);
+            if (step % 25 == 0) {
+                route.addLast(floor + 20);
+                expected.addLast(floor + 20);
+            }
+            assertEquals(new ArrayList<>(expected), route.toList());
+            assertEquals(maskOf(expected), route.getMask());
+        }
+        assertEquals(expected.size(), route.size());
+        assertEquals(expected.peekFirst(), route.getFirst());
+    }
+
+    @Test
+    void duplicateFloorKeepsItsBitUntilTheLastOneIsRemoved() {
+        Route route = Route.of(3, 5, 3, 3);
+
+        assertEquals(0b10100L, route.getMask());
+        route.removeFirst();
+        assertTrue(route.contains(3));
+        route.removeFirst();
+        assertEquals(0b00100L, route.getMask());
+        route.removeFirst();
+        assertTrue(route.contains(3));
+        route.removeFirst();
+        assertFalse(route.contains(3));
+        assertEquals(0L, route.getMask());
+        assertTrue(route.isEmpty());
+    }
+
+    @Test
+    void floorsOneAndSixtyFourAreTheFirstAndLastBits() {
+        Route route = Route.of(64, 1);
+
+        assertEquals(1L | Long.MIN_VALUE, route.getMask());
+        assertTrue(route.contains(1));
+        assertTrue(route.contains(64));
+        assertEquals(0, route.indexOf(64));
+        assertEquals(1, route.indexOf(1));
+        assertEquals(64, route.removeFirst());
+        assertEquals(1L, route.getMask());
+    }
+
+    @Test
+    void floorsOutOfRangeAreRejected() {
+        Route route = new Route();
+
+        assertThrows(IllegalArgumentException.class, () -> route.addLast(0));
+        assertThrows(IllegalArgumentException.class, () -> route.addLast(65));
+        assertThrows(IllegalArgumentException.class, () -> Route.of(List.of(1, 65)));
+        assertFalse(route.contains(0));
+        assertFalse(route.contains(65));
+        assertTrue(route.isEmpty());
+        assertEquals(0L, route.getMask());
+    }
+
+    private static long maskOf(Deque<Integer> floors) {
+        long mask = 0L;
+        for (int floor : floors) {
+            mask |= 1L << (floor - 1);
+        }
+        return mask;
+    }
+}
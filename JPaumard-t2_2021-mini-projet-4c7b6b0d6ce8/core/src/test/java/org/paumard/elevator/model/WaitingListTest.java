@@ -0,0 +1,138 @@
+package org.paumard.elevator.model;
+
+import org.junit.jupiter.api.Test;
+import org.paumard.elevator.BuildingConfig;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaitingListTest {
+
+    private final WaitingList waitingList = WaitingList.getInstance(BuildingConfig.getDefault(), new RandomStreams(10L));
+
+    private final Person toFive = new Person(0L, "To five", 5);
+    private final Person toThree = new Person(1L, "To three", 3);
+    private final Person alsoToFive = new Person(2L, "Also to five", 5);
+    private final Person toEight = new Person(3L, "To eight", 8);
+
+    @Test
+    void pollTakesThePeopleGoingToTheNextFloorsInArrivalOrder() {
+        addToFirstFloor(toFive, toThree, alsoToFive, toEight);
+
+        assertEquals(List.of(toFive, toThree, alsoToFive), waitingList.pollNextLoadablePeople(Route.of(3, 5), 1, 10));
+
+        assertEquals(List.of(toEight), waitingList.getListFor(1));
+        assertEquals(1, waitingList.countPeople());
+        assertEquals(3L, waitingList.getCountPeopleRemoved());
+    }
+
+    @Test
+    void pollTakesNoMoreThanTheMaxNumberOfPeople() {
+        addToFirstFloor(toFive, toThree, alsoToFive, toEight);
+
+        assertEquals(List.of(toFive, toThree), waitingList.pollNextLoadablePeople(Route.of(3, 5), 1, 2));
+        assertEquals(List.of(alsoToFive), waitingList.pollNextLoadablePeople(Route.of(3, 5), 1, 2));
+        assertEquals(List.of(), waitingList.pollNextLoadablePeople(Route.of(3, 5), 1, 2));
+        assertEquals(1, waitingList.countPeopleAt(1));
+    }
+
+    @Test
+    void peekReturnsThePeopleGoingToTheNextFloorsWithoutRemovingThem() {
+        addToFirstFloor(toFive, toThree, alsoToFive, toEight);
+
+        assertEquals(List.of(toFive, alsoToFive), waitingList.getNextLoadablePeople(Route.of(5), 1));
+        assertEquals(List.of(toThree, toEight), waitingList.getNextLoadablePeople(Route.of(8, 3), 1));
+        assertEquals(List.of(), waitingList.getNextLoadablePeople(Route.of(2), 1));
+        assertTrue(waitingList.hasLoadablePeople(Route.of(8), 1));
+        assertFalse(waitingList.hasLoadablePeople(Route.of(2, 4), 1));
+        assertEquals(4, waitingList.countPeopleAt(1));
+    }
+
+    @Test
+    void hallCallsFollowThePeopleWaiting() {
+        Person up = new Person(0L, "Up", 7);
+        Person down = new Person(1L, "Down", 2);
+        waitingList.addPersonToFloor(4, up);
+        waitingList.addPersonToFloor(4, down);
+
+        assertEquals(1L << 3, waitingList.getUpCalls());
+        assertEquals(1L << 3, waitingList.getDownCalls());
+        assertTrue(waitingList.hasUpCallAt(4));
+        assertTrue(waitingList.hasDownCallAt(4));
+        assertFalse(waitingList.hasUpCallAt(3));
+
+        waitingList.removePeopleFromFloor(4, up);
+        assertEquals(0L, waitingList.getUpCalls());
+        assertEquals(1L << 3, waitingList.getDownCalls());
+
+        waitingList.removePersonFromFloor(4, List.of(down));
+        assertEquals(0L, waitingList.getDownCalls());
+    }
+
+    @Test
+    void destinationIsClearedWithTheLastPersonGoingThere() {
+        addToFirstFloor(toFive, alsoToFive);
+
+        waitingList.removePeopleFromFloor(1, alsoToFive);
+        assertTrue(waitingList.hasLoadablePeople(Route.of(5), 1));
+        assertTrue(waitingList.hasUpCallAt(1));
+
+        waitingList.removePeopleFromFloor(1, toFive);
+        assertFalse(waitingList.hasLoadablePeople(Route.of(5), 1));
+        assertFalse(waitingList.hasUpCallAt(1));
+
+        // polling the last one clears it too
+        addToFirstFloor(toThree);
+        waitingList.pollNextLoadablePeople(Route.of(3), 1, 1);
+        assertFalse(waitingList.hasLoadablePeople(Route.of(3), 1));
+        assertEquals(0L, waitingList.getUpCalls());
+    }
+
+    @Test
+    void removingSomeoneWhoIsNotThereChangesNothing() {
+        addToFirstFloor(toFive);
+        long version = waitingList.getVersion();
+
+        waitingList.removePeopleFromFloor(1, alsoToFive);
+        waitingList.removePersonFromFloor(1, List.of(toThree));
+
+        assertEquals(version, waitingList.getVersion());
+        assertEquals(1, waitingList.countPeople());
+        assertEquals(0L, waitingList.getCountPeopleRemoved());
+    }
+
+    @Test
+    void viewIsRebuiltOnlyWhenTheVersionChanges() {
+        addToFirstFloor(toFive);
+        waitingList.addPersonToFloor(2, toThree);
+        WaitingListView view = waitingList.getView();
+
+        // nothing left the floor
+        waitingList.pollNextLoadablePeople(Route.of(8), 1, 10);
+        waitingList.removePeopleFromFloor(1, alsoToFive);
+        assertSame(view, waitingList.getView());
+
+        waitingList.addPersonToFloor(1, toEight);
+        WaitingListView nextView = waitingList.getView();
+
+        assertNotSame(view, nextView);
+        assertEquals(waitingList.getVersion(), nextView.getVersion());
+        assertEquals(List.of(toFive, toEight), nextView.getPeopleAt(1));
+        // the floor that did not change shares its list with the previous view
+        assertSame(view.getPeopleAt(2), nextView.getPeopleAt(2));
+        // a view does not change once handed out
+        assertEquals(List.of(toFive), view.getPeopleAt(1));
+        assertEquals(2, view.countPeople());
+    }
+
+    private void addToFirstFloor(Person... people) {
+        for (Person person : people) {
+            waitingList.addPersonToFloor(1, person);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.paumard.elevator.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void valuesBelow256AreCountedExactly() {
+        assertEquals(255, LatencyHistogram.indexOf(255L));
+        assertEquals(255L, LatencyHistogram.highestValueAt(255));
+    }
+
+    @Test
+    void valuesFrom256ShareBucketsOfTwoUpTo512() {
+        assertEquals(256, LatencyHistogram.indexOf(256L));
+        assertEquals(256, LatencyHistogram.indexOf(257L));
+        assertEquals(257L, LatencyHistogram.highestValueAt(256));
+        assertEquals(383, LatencyHistogram.indexOf(511L));
+        assertEquals(511L, LatencyHistogram.highestValueAt(383));
+        // the next power of two starts buckets of four
+        assertEquals(384, LatencyHistogram.indexOf(512L));
+        assertEquals(515L, LatencyHistogram.highestValueAt(384));
+    }
+
+    @Test
+    void percentileIsCappedByTheMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(256L);
+        assertEquals(256L, histogram.getP50());
+
+        histogram.record(257L);
+        assertEquals(257L, histogram.getP50());
+        assertEquals(256L, histogram.getMin());
+    }
+
+    @Test
+    void percentilesOfOneToAThousand() {
+        LatencyHistogram histogram = histogramOf(1L, 1_000L);
+
+        assertEquals(1_000L, histogram.getTotalCount());
+        assertEquals(1L, histogram.getMin());
+        assertEquals(1_000L, histogram.getMax());
+        assertEquals(500.5d, histogram.getMean());
+        // the 500th value is in the bucket of 500 and 501, the 990th in the one of 988 to 991
+        assertEquals(501L, histogram.getP50());
+        assertEquals(991L, histogram.getP99());
+        assertEquals(999L, histogram.getP999());
+        assertEquals(1_000L, histogram.getValueAtPercentile(100d));
+        assertEquals(1L, histogram.getValueAtPercentile(0d));
+    }
+
+    @Test
+    void percentilesAreWithinTheResolutionOfTheHistogram() {
+        long count = 100_000L;
+        LatencyHistogram histogram = histogramOf(1L, count);
+
+        for (double percentile : new double[] {1d, 10d, 50d, 90d, 95d, 99d, 99.9d, 99.99d}) {
+            long exact = (long) Math.ceil(percentile * count / 100d);
+            long value = histogram.getValueAtPercentile(percentile);
+            assertTrue(value >= exact && value - exact <= exact / 128L, percentile + "% = " + value + ", " + exact + " expected");
+        }
+    }
+
+    @Test
+    void percentileOutOfRangeIsRejected() {
+        LatencyHistogram histogram = histogramOf(1L, 10L);
+
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(-1d));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(100.1d));
+    }
+
+    @Test
+    void histogramsOfDifferentSizesMergeBothWays() {
+        LatencyHistogram small = histogramOf(1L, 100L);
+        LatencyHistogram large = new LatencyHistogram();
+        large.record(300L);
+        large.record(1_000_000L, 3L);
+
+        LatencyHistogram smallIntoLarge = LatencyHistogram.decode(large.encode());
+        smallIntoLarge.merge(small);
+        LatencyHistogram largeIntoSmall = LatencyHistogram.decode(small.encode());
+        largeIntoSmall.merge(large);
+
+        assertArrayEquals(smallIntoLarge.encode(), largeIntoSmall.encode());
+        assertEquals(104L, largeIntoSmall.getTotalCount());
+        assertEquals(5_050L + 300L + 3_000_000L, largeIntoSmall.getSum());
+        assertEquals(1L, largeIntoSmall.getMin());
+        assertEquals(1_000_000L, largeIntoSmall.getMax());
+        assertEquals(1_000_000L, largeIntoSmall.getValueAtPercentile(98d));
+    }
+
+    @Test
+    void mergingAnEmptyHistogramChangesNothing() {
+        LatencyHistogram histogram = histogramOf(5L, 10L);
+        byte[] encoded = histogram.encode();
+
+        histogram.merge(new LatencyHistogram());
+
+        assertArrayEquals(encoded, histogram.encode());
+        assertEquals(5L, histogram.getMin());
+    }
+
+    @Test
+    void encodedHistogramDecodesToTheSameHistogram() {
+        LatencyHistogram histogram = histogramOf(1L, 300L);
+        histogram.record(70_000L, 2L);
+        histogram.record(Long.MAX_VALUE / 4L);
+
+        LatencyHistogram decoded = LatencyHistogram.decode(histogram.encode());
+
+        assertEquals(histogram.getTotalCount(), decoded.getTotalCount());
+        assertEquals(histogram.getSum(), decoded.getSum());
+        assertEquals(histogram.getMin(), decoded.getMin());
+        assertEquals(histogram.getMax(), decoded.getMax());
+        for (double percentile : new double[] {0d, 50d, 99d, 99.5d, 100d}) {
+            assertEquals(histogram.getValueAtPercentile(percentile), decoded.getValueAtPercentile(percentile));
+        }
+        assertArrayEquals(histogram.encode(), decoded.encode());
+    }
+
+    @Test
+    void emptyHistogramDecodesToAnEmptyHistogram() {
+        LatencyHistogram decoded = LatencyHistogram.decode(new LatencyHistogram().encode());
+
+        assertTrue(decoded.isEmpty());
+        assertEquals(0L, decoded.getMin());
+        assertEquals(0L, decoded.getMax());
+        assertEquals(0L, decoded.getP99());
+
+        // the min of an empty histogram does not hide the one of the values recorded after
+        decoded.record(42L);
+        assertEquals(42L, decoded.getMin());
+    }
+
+    @Test
+    void truncatedEncodingIsRejected() {
+        for (LatencyHistogram histogram : new LatencyHistogram[] {new LatencyHistogram(), histogramOf(1L, 1_000L)}) {
+            byte[] encoded = histogram.encode();
+            for (int length = 0; length < encoded.length; length++) {
+                byte[] truncated = Arrays.copyOf(encoded, length);
+                assertThrows(IllegalArgumentException.class, () -> LatencyHistogram.decode(truncated));
+            }
+        }
+    }
+
+    private static LatencyHistogram histogramOf(long from, long to) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = from; value <= to; value++) {
+            histogram.record(value);
+        }
+        return histogram;
+    }
+}
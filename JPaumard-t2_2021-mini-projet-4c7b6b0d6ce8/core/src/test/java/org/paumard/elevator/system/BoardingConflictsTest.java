@@ -0,0 +1,129 @@
+package org.paumard.elevator.system;
+
+import org.junit.jupiter.api.Test;
+import org.paumard.elevator.BuildingConfig;
+import org.paumard.elevator.ElevatorController;
+import org.paumard.elevator.event.Event;
+import org.paumard.elevator.model.Person;
+import org.paumard.elevator.model.RandomStreams;
+import org.paumard.elevator.model.Route;
+import org.paumard.elevator.model.WaitingList;
+import org.paumard.elevator.student.DumbElevator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BoardingConflictsTest {
+
+    private static final long SEED = 10L;
+
+    private final BuildingConfig config = BuildingConfig.getDefault();
+    private final RandomStreams random = new RandomStreams(SEED);
+    private final WaitingList waitingList = WaitingList.getInstance(config, random);
+    private final ShadowElevators shadowElevators = new ShadowElevators(new Elevators(List.of(
+            dumbElevator("Dumb 1"), dumbElevator("Dumb 2"))), config, waitingList);
+
+    @Test
+    void leastLoadedCarTakesThePeople() {
+        load(0, 12);
+        load(1, 4);
+        addPeopleGoingTo(5, 6);
+        List<Event.LoadingAttempt> attempts = attempts(Route.of(5), Route.of(5));
+
+        BoardingConflicts.assignPeopleAtFloor(waitingList, shadowElevators, 1, attempts);
+
+        // the second car stays the least loaded one, even with the six people in
+        assertEquals(0, attempts.get(0).peopleToLoad().size());
+        assertEquals(6, attempts.get(1).peopleToLoad().size());
+        assertEquals(0, waitingList.countPeopleAt(1));
+        assertTieBreaksDrawn(0);
+    }
+
+    @Test
+    void carReachingTheDestinationFirstTakesThePeopleUpToItsRoomLeft() {
+        load(0, config.getElevatorCapacity() - 2);
+        List<Person> people = addPeopleGoingTo(5, 6);
+        // the second car is empty, but stops at 3 first
+        List<Event.LoadingAttempt> attempts = attempts(Route.of(5), Route.of(3, 5));
+
+        BoardingConflicts.assignPeopleAtFloor(waitingList, shadowElevators, 1, attempts);
+
+        assertEquals(2, attempts.get(0).peopleToLoad().size());
+        assertEquals(4, attempts.get(1).peopleToLoad().size());
+        // in arrival order, the first two people are the ones the first car took
+        assertEquals(people.subList(0, 2), attempts.get(0).peopleToLoad());
+        assertEquals(people.subList(2, 6), attempts.get(1).peopleToLoad());
+        assertEquals(0, waitingList.countPeopleAt(1));
+        assertTieBreaksDrawn(0);
+    }
+
+    @Test
+    void tieIsBrokenWithOneDrawOfTheTieBreakStream() {
+        load(0, 3);
+        load(1, 3);
+        addPeopleGoingTo(5, 1);
+        List<Event.LoadingAttempt> attempts = attempts(Route.of(5), Route.of(5));
+
+        BoardingConflicts.assignPeopleAtFloor(waitingList, shadowElevators, 1, attempts);
+
+        int selected = new RandomStreams(SEED).tieBreaks().nextInt(2);
+        assertEquals(1, attempts.get(selected).peopleToLoad().size());
+        assertEquals(0, attempts.get(1 - selected).peopleToLoad().size());
+        assertTieBreaksDrawn(1);
+    }
+
+    @Test
+    void nobodyBoardsACarThatIsNotGoingTheirWay() {
+        addPeopleGoingTo(5, 2);
+        addPeopleGoingTo(8, 1);
+        List<Event.LoadingAttempt> attempts = attempts(Route.of(5), Route.of(3, 5));
+
+        BoardingConflicts.assignPeopleAtFloor(waitingList, shadowElevators, 1, attempts);
+
+        assertEquals(2, attempts.get(0).peopleToLoad().size());
+        assertEquals(0, attempts.get(1).peopleToLoad().size());
+        assertEquals(1, waitingList.countPeopleAt(1));
+    }
+
+    private static ElevatorController dumbElevator(String id) {
+        return new ElevatorAdapter(new DumbElevator(BuildingConfig.getDefault().getElevatorCapacity(), id));
+    }
+
+    private void load(int elevatorIndex, int numberOfPeople) {
+        List<Person> people = new ArrayList<>();
+        for (int count = 0; count < numberOfPeople; count++) {
+            people.add(new Person(0L, "Rider " + count, 10));
+        }
+        shadowElevators.get(elevatorIndex).loadPeople(people);
+    }
+
+    private List<Person> addPeopleGoingTo(int destinationFloor, int numberOfPeople) {
+        List<Person> people = new ArrayList<>();
+        for (int count = 0; count < numberOfPeople; count++) {
+            Person person = new Person(count, "Person " + count, destinationFloor);
+            waitingList.addPersonToFloor(1, person);
+            people.add(person);
+        }
+        return people;
+    }
+
+    private static List<Event.LoadingAttempt> attempts(Route... routes) {
+        List<Event.LoadingAttempt> attempts = new ArrayList<>();
+        for (int index = 0; index < routes.length; index++) {
+            attempts.add(new Event.AttemptToLoadFirstPerson(index, 1, routes[index]));
+        }
+        return attempts;
+    }
+
+    // the tie-break stream of the waiting list is where a stream of the same seed is after that many draws between two cars
+    private void assertTieBreaksDrawn(int draws) {
+        RandomGenerator expected = new RandomStreams(SEED).tieBreaks();
+        for (int draw = 0; draw < draws; draw++) {
+            expected.nextInt(2);
+        }
+        assertEquals(expected.nextLong(), random.tieBreaks().nextLong());
+    }
+}
@@ -0,0 +1,312 @@
+package org.paumard.elevator.system;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.paumard.elevator.BuildingConfig;
+import org.paumard.elevator.ElevatorController;
+import org.paumard.elevator.model.Person;
+import org.paumard.elevator.student.DumbElevator;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineControllerTest {
+
+    private static final Duration DEADLINE = Duration.ofMillis(50);
+
+    private final FixedBuildingState buildingState = new FixedBuildingState();
+    private final RecordingController recorder = new RecordingController();
+    // released at the end of each test, so that no controller is left blocked
+    private final CountDownLatch endOfTest = new CountDownLatch(1);
+
+    @AfterEach
+    void releaseBlockedControllers() {
+        recorder.release.countDown();
+        endOfTest.countDown();
+    }
+
+    @Test
+    void decisionInTimeIsTheOneOfTheController() {
+        try (DeadlineController controller = deadlineController(Fallback.HOLD_CURRENT_FLOOR)) {
+
+            assertEquals(List.of(5), controller.chooseNextFloors());
+            assertEquals(0L, controller.getDeadlineViolations());
+            assertFalse(controller.isFallingBack());
+        }
+    }
+
+    @Test
+    void lateDecisionHoldsTheCurrentFloor() {
+        try (DeadlineController controller = deadlineController(Fallback.HOLD_CURRENT_FLOOR)) {
+            buildingState.nextFloors = List.of(7, 9);
+            recorder.blockNextDecision = true;
+
+            assertEquals(List.of(3), controller.chooseNextFloors());
+            assertEquals(1L, controller.getDeadlineViolations());
+            assertTrue(controller.isFallingBack());
+
+            // the controller is not asked again while it is late
+            assertEquals(List.of(3), controller.chooseNextFloors());
+            assertEquals(2L, controller.getDeadlineViolations());
+            assertEquals(List.of("chooseNextFloors"), recorder.callbacks);
+        }
+    }
+
+    @Test
+    void lateDecisionFollowsTheLastRoute() {
+        try (DeadlineController controller = deadlineController(Fallback.LAST_ROUTE)) {
+            buildingState.nextFloors = List.of(7, 9);
+            recorder.blockNextDecision = true;
+
+            assertEquals(List.of(7, 9), controller.chooseNextFloors());
+            assertTrue(controller.isFallingBack());
+
+            // with nothing left in the route, the elevator holds its floor
+            buildingState.nextFloors = List.of();
+            assertEquals(List.of(3), controller.chooseNextFloors());
+        }
+    }
+
+    @Test
+    void callbacksReceivedWhileLateAreReplayedInOrder() {
+        try (DeadlineController controller = deadlineController(Fallback.HOLD_CURRENT_FLOOR)) {
+            recorder.blockNextDecision = true;
+            controller.chooseNextFloors();
+
+            controller.arriveAtFloor(4);
+            controller.timeIs(LocalTime.of(8, 0));
+            controller.onBoarded(4, List.of());
+            assertEquals(List.of("chooseNextFloors"), recorder.callbacks);
+
+            recorder.release.countDown();
+            waitUntilCaughtUp(controller);
+
+            assertEquals(List.of("chooseNextFloors", "arriveAtFloor 4", "timeIs 08:00", "onBoarded 4", "chooseNextFloors"),
+                    recorder.callbacks);
+            assertFalse(controller.isFallingBack());
+        }
+    }
+
+    @Test
+    void lateCallReadsTheStateOfWhenItWasLate() {
+        try (DeadlineController controller = deadlineController(Fallback.HOLD_CURRENT_FLOOR)) {
+            recorder.blockNextDecision = true;
+            controller.chooseNextFloors();
+
+            // the simulation goes on without the controller
+            buildingState.floor = 6;
+            recorder.release.countDown();
+            waitUntilCaughtUp(controller);
+
+            assertEquals(List.of(3, 6), recorder.floorsRead);
+        }
+    }
+
+    @Test
+    void failureOfAQueuedCallbackFailsTheRun() {
+        try (DeadlineController controller = deadlineController(Fallback.HOLD_CURRENT_FLOOR)) {
+            recorder.blockNextDecision = true;
+            controller.chooseNextFloors();
+            recorder.failOnArrival = true;
+            controller.arriveAtFloor(4);
+
+            recorder.release.countDown();
+
+            assertThrows(IllegalStateException.class, () -> waitUntilCaughtUp(controller));
+        }
+    }
+
+    @Test
+    void closeStopsTheThreadOfTheController() throws InterruptedException {
+        DeadlineController controller = deadlineController(Fallback.HOLD_CURRENT_FLOOR);
+        controller.chooseNextFloors();
+        Thread worker = recorder.worker;
+
+        controller.close();
+        worker.join(DEADLINE.toMillis() * 20);
+
+        assertFalse(worker.isAlive());
+    }
+
+    @Test
+    void closeInterruptsALateCall() throws InterruptedException {
+        DeadlineController controller = deadlineController(Fallback.HOLD_CURRENT_FLOOR);
+        // the interrupt sent when the deadline is missed is ignored, the one sent by close is not
+        recorder.blockNextDecision = true;
+        recorder.interruptsToGiveUp = 2;
+        controller.chooseNextFloors();
+        Thread worker = recorder.worker;
+        // two interrupts sent before the controller sees the first one would be seen as one
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (recorder.interrupts == 0) {
+                Thread.sleep(1L);
+            }
+        });
+
+        controller.close();
+        worker.join(DEADLINE.toMillis() * 20);
+
+        assertFalse(worker.isAlive());
+        assertEquals(2, recorder.interrupts);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"init", "startsAtFloor", "chooseNextFloors", "arriveAtFloor", "onHallCall", "onBoarded",
+            "onAlighted", "lastPersonArrived", "timeIs", "standByAtFloor"})
+    void runFinishesWhenAControllerNeverReturns(String callback) {
+        BuildingConfig config = BuildingConfig.getDefault();
+        SimulationEngine engine = new SimulationEngine(config, 10L, SimulationLog.off());
+        DeadlineController blocked = new DeadlineController(0, blockingIn(callback, dumbElevator("Dumb 1")),
+                SimulationLog.off(), DEADLINE, Fallback.HOLD_CURRENT_FLOOR);
+        engine.addController(blocked);
+        for (int index = 2; index <= config.getNumberOfElevators(); index++) {
+            engine.addController(dumbElevator("Dumb " + index));
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), engine::run);
+
+        assertTrue(blocked.getDeadlineViolations() > 0L);
+    }
+
+    private DeadlineController deadlineController(Fallback fallback) {
+        DeadlineController controller = new DeadlineController(0, recorder, SimulationLog.off(), DEADLINE, fallback);
+        controller.init(buildingState);
+        return controller;
+    }
+
+    // once the late call and the callbacks queued behind it are done, the controller is asked again
+    private static void waitUntilCaughtUp(DeadlineController controller) {
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (true) {
+                controller.chooseNextFloors();
+                if (!controller.isFallingBack()) {
+                    return;
+                }
+                Thread.sleep(1L);
+            }
+        });
+    }
+
+    private static ElevatorController dumbElevator(String id) {
+        return new ElevatorAdapter(new DumbElevator(BuildingConfig.getDefault().getElevatorCapacity(), id));
+    }
+
+    // the first time the callback is called, the controller blocks until the end of the test, whatever happens
+    private ElevatorController blockingIn(String callback, ElevatorController controller) {
+        boolean[] blocked = {false};
+        return (ElevatorController) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ElevatorController.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals(callback) && !blocked[0]) {
+                        blocked[0] = true;
+                        while (endOfTest.getCount() > 0L) {
+                            try {
+                                endOfTest.await();
+                            } catch (InterruptedException e) {
+                                // not giving up
+                            }
+                        }
+                    }
+                    return method.invoke(controller, args);
+                });
+    }
+
+    // records the callbacks it receives, and the floor of its elevator each time it decides
+    private static class RecordingController implements ElevatorController {
+
+        final List<String> callbacks = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> floorsRead = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean blockNextDecision = false;
+        volatile boolean failOnArrival = false;
+        volatile int interruptsToGiveUp = Integer.MAX_VALUE;
+        volatile int interrupts = 0;
+        volatile Thread worker;
+        private BuildingState buildingState;
+
+        @Override
+        public String getId() {
+            return "Test 1";
+        }
+
+        @Override
+        public void init(BuildingState buildingState) {
+            this.buildingState = buildingState;
+        }
+
+        @Override
+        public void startsAtFloor(LocalTime time, int initialFloor) {
+            callbacks.add("startsAtFloor " + initialFloor);
+        }
+
+        @Override
+        public List<Integer> chooseNextFloors() {
+            worker = Thread.currentThread();
+            callbacks.add("chooseNextFloors");
+            if (blockNextDecision) {
+                blockNextDecision = false;
+                while (release.getCount() > 0L) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        if (++interrupts == interruptsToGiveUp) {
+                            return List.of();
+                        }
+                    }
+                }
+            }
+            floorsRead.add(buildingState.getFloorOf(0));
+            return List.of(5);
+        }
+
+        @Override
+        public void arriveAtFloor(int floor) {
+            if (failOnArrival) {
+                throw new IllegalStateException("Failing on purpose");
+            }
+            callbacks.add("arriveAtFloor " + floor);
+        }
+
+        @Override
+        public void onHallCall(int floor, Person person) {
+            callbacks.add("onHallCall " + floor);
+        }
+
+        @Override
+        public void onBoarded(int floor, List<Person> people) {
+            callbacks.add("onBoarded " + floor);
+        }
+
+        @Override
+        public void onAlighted(int floor, List<Person> people) {
+            callbacks.add("onAlighted " + floor);
+        }
+
+        @Override
+        public void lastPersonArrived() {
+            callbacks.add("lastPersonArrived");
+        }
+
+        @Override
+        public void timeIs(LocalTime time) {
+            callbacks.add("timeIs " + time);
+        }
+
+        @Override
+        public void standByAtFloor(int currentFloor) {
+            callbacks.add("standByAtFloor " + currentFloor);
+        }
+    }
+}
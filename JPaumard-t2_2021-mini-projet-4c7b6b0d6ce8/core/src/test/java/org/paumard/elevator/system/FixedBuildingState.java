@@ -0,0 +1,77 @@
+package org.paumard.elevator.system;
+
+import org.paumard.elevator.model.WaitingListView;
+
+import java.time.LocalTime;
+import java.util.List;
+
+// a building of one elevator, outside of any simulation: the test sets where the elevator is and where it goes
+class FixedBuildingState extends BuildingState {
+
+    volatile int floor = 3;
+    volatile List<Integer> nextFloors = List.of();
+
+    FixedBuildingState() {
+        super(null, null, null);
+    }
+
+    @Override
+    public LocalTime getTime() {
+        return SimTime.toLocalTime(0L);
+    }
+
+    @Override
+    public long getSimTime() {
+        return 0L;
+    }
+
+    @Override
+    public int getNumberOfFloors() {
+        return 10;
+    }
+
+    @Override
+    public long getUpCalls() {
+        return 0L;
+    }
+
+    @Override
+    public long getDownCalls() {
+        return 0L;
+    }
+
+    @Override
+    public WaitingListView getWaitingList() {
+        return null;
+    }
+
+    @Override
+    public int getNumberOfElevators() {
+        return 1;
+    }
+
+    @Override
+    public String getElevatorId(int elevatorIndex) {
+        return "Test 1";
+    }
+
+    @Override
+    public int getFloorOf(int elevatorIndex) {
+        return floor;
+    }
+
+    @Override
+    public List<Integer> getNextFloorsOf(int elevatorIndex) {
+        return nextFloors;
+    }
+
+    @Override
+    public int countPeopleIn(int elevatorIndex) {
+        return 0;
+    }
+
+    @Override
+    public long getCarCalls(int elevatorIndex) {
+        return 0L;
+    }
+}
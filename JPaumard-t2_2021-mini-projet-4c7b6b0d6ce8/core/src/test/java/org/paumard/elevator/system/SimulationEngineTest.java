@@ -0,0 +1,54 @@
+package org.paumard.elevator.system;
+
+import org.junit.jupiter.api.Test;
+import org.paumard.elevator.BuildingConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SimulationEngineTest {
+
+    @Test
+    void durationOnALimitIsCountedInTheLineBelowIt() {
+        SimulationEngine engine = new SimulationEngine(BuildingConfig.getDefault(), 10L, SimulationLog.off());
+        for (long duration : new long[] {360L, 900L, 1800L, 3600L}) {
+            engine.addTravelDuration(duration);
+        }
+
+        assertEquals(List.of(
+                " 0h  0mn 30s -> 0",
+                " 0h  3mn  0s -> 1",
+                " 0h  6mn  0s -> 1",
+                " 0h 15mn  0s -> 1",
+                " 0h 30mn  0s -> 1",
+                " 1h  0mn  0s -> 0"), printDurationHistogram(engine));
+    }
+
+    @Test
+    void durationAboveALimitIsCountedInItsLine() {
+        SimulationEngine engine = new SimulationEngine(BuildingConfig.getDefault(), 10L, SimulationLog.off());
+        for (long duration : new long[] {3L, 30L, 33L, 363L, 903L, 1803L, 3603L}) {
+            engine.addTravelDuration(duration);
+        }
+
+        assertEquals(List.of(
+                " 0h  0mn 30s -> 3",
+                " 0h  3mn  0s -> 0",
+                " 0h  6mn  0s -> 1",
+                " 0h 15mn  0s -> 1",
+                " 0h 30mn  0s -> 1",
+                " 1h  0mn  0s -> 1"), printDurationHistogram(engine));
+    }
+
+    private static List<String> printDurationHistogram(SimulationEngine engine) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream printer = new PrintStream(bytes, true, StandardCharsets.UTF_8)) {
+            engine.printDurationHistogram(printer);
+        }
+        return bytes.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
@@ -0,0 +1,137 @@
+package org.paumard.elevator.system;
+
+import org.junit.jupiter.api.Test;
+import org.paumard.elevator.ElevatorController;
+import org.paumard.elevator.model.Person;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimedControllerTest {
+
+    private static final Duration BUDGET = Duration.ofMillis(5);
+
+    private final FixedBuildingState buildingState = new FixedBuildingState();
+    private final SlowController slowController = new SlowController();
+
+    @Test
+    void everyDecisionIsTimed() {
+        TimedController controller = timedController(TimedController.BudgetMode.FLAG);
+
+        controller.chooseNextFloors();
+        controller.chooseNextFloors();
+
+        assertEquals(2L, controller.getLatencies().getTotalCount());
+        assertEquals(0L, controller.getBudgetViolations());
+    }
+
+    @Test
+    void lateDecisionIsFlaggedAndKept() {
+        TimedController controller = timedController(TimedController.BudgetMode.FLAG);
+        slowController.delay = BUDGET.multipliedBy(4);
+
+        assertEquals(List.of(5), controller.chooseNextFloors());
+        assertEquals(1L, controller.getBudgetViolations());
+        assertTrue(controller.getLatencies().getMax() > BUDGET.toNanos());
+        assertFalse(controller.isFallingBack());
+    }
+
+    @Test
+    void lateDecisionFallsBackToTheCurrentFloor() {
+        TimedController controller = timedController(TimedController.BudgetMode.FALL_BACK);
+        slowController.delay = BUDGET.multipliedBy(4);
+
+        assertEquals(List.of(3), controller.chooseNextFloors());
+        assertEquals(1L, controller.getBudgetViolations());
+        assertTrue(controller.isFallingBack());
+
+        // the next decision in time is followed again
+        slowController.delay = Duration.ZERO;
+        assertEquals(List.of(5), controller.chooseNextFloors());
+        assertFalse(controller.isFallingBack());
+    }
+
+    @Test
+    void fallingBackUnderADeadlineIsSeenThroughTheTimer() {
+        slowController.delay = Duration.ofSeconds(1);
+        try (DeadlineController deadlineController = new DeadlineController(0, slowController, SimulationLog.off(),
+                Duration.ofMillis(50), Fallback.HOLD_CURRENT_FLOOR)) {
+            TimedController controller = new TimedController(0, deadlineController);
+            controller.init(buildingState);
+
+            assertEquals(List.of(3), controller.chooseNextFloors());
+            assertTrue(controller.isFallingBack());
+        }
+    }
+
+    private TimedController timedController(TimedController.BudgetMode budgetMode) {
+        TimedController controller = new TimedController(0, slowController, SimulationLog.off(), BUDGET, budgetMode, false);
+        controller.init(buildingState);
+        return controller;
+    }
+
+    // always goes to the fifth floor, after a delay the test sets
+    private static class SlowController implements ElevatorController {
+
+        volatile Duration delay = Duration.ZERO;
+
+        @Override
+        public String getId() {
+            return "Test 1";
+        }
+
+        @Override
+        public void init(BuildingState buildingState) {
+        }
+
+        @Override
+        public void startsAtFloor(LocalTime time, int initialFloor) {
+        }
+
+        @Override
+        public List<Integer> chooseNextFloors() {
+            long end = System.nanoTime() + delay.toNanos();
+            while (System.nanoTime() < end) {
+                try {
+                    Thread.sleep(1L);
+                } catch (InterruptedException e) {
+                    return List.of();
+                }
+            }
+            return List.of(5);
+        }
+
+        @Override
+        public void arriveAtFloor(int floor) {
+        }
+
+        @Override
+        public void onHallCall(int floor, Person person) {
+        }
+
+        @Override
+        public void onBoarded(int floor, List<Person> people) {
+        }
+
+        @Override
+        public void onAlighted(int floor, List<Person> people) {
+        }
+
+        @Override
+        public void lastPersonArrived() {
+        }
+
+        @Override
+        public void timeIs(LocalTime time) {
+        }
+
+        @Override
+        public void standByAtFloor(int currentFloor) {
+        }
+    }
+}
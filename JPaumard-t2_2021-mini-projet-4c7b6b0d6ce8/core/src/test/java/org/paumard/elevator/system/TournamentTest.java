@@ -0,0 +1,73 @@
+package org.paumard.elevator.system;
+
+import org.junit.jupiter.api.Test;
+import org.paumard.elevator.BuildingConfig;
+import org.paumard.elevator.student.DumbElevator;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TournamentTest {
+
+    @Test
+    void failingAndHangingEntriesAreDisqualifiedAndTheOthersRanked() {
+        Tournament tournament = new Tournament(BuildingConfig.getDefault(),
+                List.of(ThrowingElevator.class, DumbElevator.class, HangingElevator.class), 1, 10L, 1);
+
+        Tournament.Leaderboard leaderboard = assertTimeoutPreemptively(Duration.ofSeconds(60), tournament::run);
+
+        List<Tournament.Entry> entries = leaderboard.getEntries();
+        assertEquals(List.of("DumbElevator", "ThrowingElevator", "HangingElevator"),
+                entries.stream().map(Tournament.Entry::getName).toList());
+
+        Tournament.Entry ranked = entries.get(0);
+        assertFalse(ranked.isDisqualified());
+        assertNull(ranked.getFailure());
+        assertTrue(ranked.getDurations().getTotalCount() > 0L);
+
+        assertTrue(entries.get(1).isDisqualified());
+        assertTrue(entries.get(1).getFailure().contains("thrown on purpose"));
+        assertTrue(entries.get(2).isDisqualified());
+        assertEquals("Elevator [HangingElevator 1] never returned from timeIs", entries.get(2).getFailure());
+    }
+
+    public static class ThrowingElevator extends DumbElevator {
+
+        public ThrowingElevator(int capacity, String id) {
+            super(capacity, id);
+        }
+
+        @Override
+        public List<Integer> chooseNextFloors() {
+            throw new IllegalStateException("thrown on purpose");
+        }
+    }
+
+    // never returns from its hundredth timeIs, interrupted or not
+    public static class HangingElevator extends DumbElevator {
+
+        private int calls = 0;
+
+        public HangingElevator(int capacity, String id) {
+            super(capacity, id);
+        }
+
+        @Override
+        public void timeIs(LocalTime time) {
+            if (++calls == 100) {
+                while (true) {
+                    LockSupport.park();
+                }
+            }
+            super.timeIs(time);
+        }
+    }
+}
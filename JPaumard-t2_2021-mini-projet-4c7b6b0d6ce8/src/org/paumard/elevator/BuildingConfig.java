@@ -0,0 +1,181 @@
+package org.paumard.elevator;
+
+import org.paumard.elevator.event.Event;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.paumard.elevator.Building.*;
+
+// the geometry, the fleet, the timings and the day window of a building.
+// The default one is the building described by the constants of Building; a properties file
+// only needs the keys that differ from it, see files/building.properties
+public class BuildingConfig {
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final String DURATION_PREFIX = "duration.";
+
+    private static final BuildingConfig DEFAULT = new BuildingConfig(new Properties());
+
+    private final int numberOfFloors;
+    private final int numberOfElevators;
+    private final int elevatorCapacity;
+    private final int loadingCapacity;
+    private final int tickDuration;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+    private final LocalTime endOfDay;
+    // in seconds, indexed by the ordinal of the kind of event
+    private final long[] durations = new long[Event.Kind.values().length];
+    private final long oneFloorTravel;
+    private final long fewFloorsTravel;
+    private final long fewFloorsTravelPerFloor;
+    private final long manyFloorsTravel;
+    private final long manyFloorsTravelPerFloor;
+
+    private BuildingConfig(Properties properties) {
+        Set<String> unknownKeys = new HashSet<>(properties.stringPropertyNames());
+
+        this.numberOfFloors = readInt(properties, unknownKeys, "floors", MAX_FLOOR);
+        this.numberOfElevators = readInt(properties, unknownKeys, "elevators", NUMBER_OF_ELEVATORS);
+        this.elevatorCapacity = readInt(properties, unknownKeys, "elevator.capacity", ELEVATOR_CAPACITY);
+        this.loadingCapacity = readInt(properties, unknownKeys, "elevator.loadingCapacity", ELEVATOR_LOADING_CAPACITY);
+        this.tickDuration = readInt(properties, unknownKeys, "tick", TICK_DURATION_IN_SECONDS);
+        this.startTime = readTime(properties, unknownKeys, "time.start", START_TIME);
+        this.endTime = readTime(properties, unknownKeys, "time.end", END_TIME);
+        this.endOfDay = readTime(properties, unknownKeys, "time.endOfDay", END_OF_DAY);
+        for (Event.Kind kind : Event.Kind.values()) {
+            // the travel time of an elevator depends on the floors, it is computed below
+            if (kind != Event.Kind.ARRIVES_AT_FLOOR) {
+                durations[kind.ordinal()] = readInt(properties, unknownKeys, DURATION_PREFIX + kind.name(), (int) kind.getDuration());
+            }
+        }
+        this.oneFloorTravel = readInt(properties, unknownKeys, "travel.oneFloor", 18);
+        this.fewFloorsTravel = readInt(properties, unknownKeys, "travel.fewFloors", 24);
+        this.fewFloorsTravelPerFloor = readInt(properties, unknownKeys, "travel.fewFloorsPerFloor", 6);
+        this.manyFloorsTravel = readInt(properties, unknownKeys, "travel.manyFloors", 36);
+        this.manyFloorsTravelPerFloor = readInt(properties, unknownKeys, "travel.manyFloorsPerFloor", 3);
+
+        if (!unknownKeys.isEmpty()) {
+            throw new IllegalArgumentException("Unknown building properties: " + unknownKeys);
+        }
+        // the floors are tracked in the bits of a long
+        if (numberOfFloors < 2 || numberOfFloors > Long.SIZE) {
+            throw new IllegalArgumentException("The number of floors should be between 2 and " + Long.SIZE + ": " + numberOfFloors);
+        }
+        if (numberOfElevators < 1 || elevatorCapacity < 1 || loadingCapacity < 1) {
+            throw new IllegalArgumentException("The numbers of elevators, their capacity and their loading capacity should be positive");
+        }
+        if (tickDuration < 1 || SECONDS_PER_DAY % tickDuration != 0) {
+            throw new IllegalArgumentException("The tick should divide a day: " + tickDuration);
+        }
+        if (!startTime.isBefore(endTime) || endOfDay.isBefore(endTime)) {
+            throw new IllegalArgumentException("The day should start before " + endTime + " and end after it");
+        }
+    }
+
+    public static BuildingConfig getDefault() {
+        return DEFAULT;
+    }
+
+    public static BuildingConfig of(Properties properties) {
+        return new BuildingConfig(properties);
+    }
+
+    public static BuildingConfig load(Path path) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new BuildingConfig(properties);
+    }
+
+    private static int readInt(Properties properties, Set<String> unknownKeys, String key, int defaultValue) {
+        unknownKeys.remove(key);
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number for " + key + ": " + value, e);
+        }
+    }
+
+    private static LocalTime readTime(Properties properties, Set<String> unknownKeys, String key, LocalTime defaultValue) {
+        unknownKeys.remove(key);
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return LocalTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Not a time for " + key + ": " + value, e);
+        }
+    }
+
+    public int getNumberOfFloors() {
+        return numberOfFloors;
+    }
+
+    public int getNumberOfElevators() {
+        return numberOfElevators;
+    }
+
+    public int getElevatorCapacity() {
+        return elevatorCapacity;
+    }
+
+    // how many people get in or out of an elevator at once
+    public int getLoadingCapacity() {
+        return loadingCapacity;
+    }
+
+    public int getTickDuration() {
+        return tickDuration;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    // no one arrives after the end time
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public LocalTime getEndOfDay() {
+        return endOfDay;
+    }
+
+    // in seconds
+    public long getDuration(Event.Kind kind) {
+        return durations[kind.ordinal()];
+    }
+
+    // in seconds
+    public long getTravelDuration(int currentFloor, int nextFloor) {
+
+        if (currentFloor == nextFloor) {
+            return 0L;
+        } else if (Math.abs(currentFloor - nextFloor) == 1) {
+            return oneFloorTravel;
+        } else if (Math.abs(currentFloor - nextFloor) <= 3) {
+            return fewFloorsTravel + Math.abs(currentFloor - nextFloor - 1) * fewFloorsTravelPerFloor;
+        } else {
+            return manyFloorsTravel + Math.abs(currentFloor - nextFloor - 3) * manyFloorsTravelPerFloor;
+        }
+    }
+}
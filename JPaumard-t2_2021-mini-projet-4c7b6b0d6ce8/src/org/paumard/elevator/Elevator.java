@@ -1,6 +1,7 @@
 package org.paumard.elevator;
 
 import org.paumard.elevator.model.Person;
+import org.paumard.elevator.model.WaitingListView;
 
 import java.time.LocalTime;
 import java.util.List;
@@ -13,6 +14,11 @@ public interface Elevator {
 
     void peopleWaiting(List<List<Person>> peopleByFloor);
 
+    // the view cannot be modified, elevators written for the lists get their own copy
+    default void peopleWaiting(WaitingListView waitingList) {
+        peopleWaiting(waitingList.copyLists());
+    }
+
     List<Integer> chooseNextFloors();
 
     void arriveAtFloor(int floor);
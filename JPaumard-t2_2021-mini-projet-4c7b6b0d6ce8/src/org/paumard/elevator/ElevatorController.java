@@ -0,0 +1,40 @@
+package org.paumard.elevator;
+
+import org.paumard.elevator.model.Person;
+import org.paumard.elevator.system.BuildingState;
+
+import java.time.LocalTime;
+import java.util.List;
+
+// the engine owns the state of the building, a controller only receives what changed
+// and reads the rest from the BuildingState it is given at the beginning of the run
+public interface ElevatorController {
+
+    String getId();
+
+    void init(BuildingState buildingState);
+
+    void startsAtFloor(LocalTime time, int initialFloor);
+
+    List<Integer> chooseNextFloors();
+
+    // true when the last floors returned by chooseNextFloors come from a fallback, not from the controller:
+    // staying at the current floor then does not stop the elevator, it stands by and asks again
+    default boolean isFallingBack() {
+        return false;
+    }
+
+    void arriveAtFloor(int floor);
+
+    void onHallCall(int floor, Person person);
+
+    void onBoarded(int floor, List<Person> people);
+
+    void onAlighted(int floor, List<Person> people);
+
+    void lastPersonArrived();
+
+    void timeIs(LocalTime time);
+
+    void standByAtFloor(int currentFloor);
+}
@@ -1,236 +1,202 @@
 package org.paumard.elevator.event;
 
-import org.paumard.elevator.Elevator;
+import org.paumard.elevator.BuildingConfig;
+import org.paumard.elevator.ElevatorController;
 import org.paumard.elevator.model.Person;
+import org.paumard.elevator.model.Route;
 import org.paumard.elevator.system.Elevators;
 import org.paumard.elevator.system.ShadowElevator;
+import org.paumard.elevator.system.SimTime;
+import org.paumard.elevator.system.SimulationEngine;
+import org.paumard.elevator.system.SimulationLog;
+import org.paumard.elevator.system.Verbosity;
 
-import java.time.Duration;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.NavigableMap;
-import java.util.TreeMap;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public sealed interface Event {
+
+    enum Kind {
+        ELEVATOR_STARTS("Elevator starts", 0L),
+        ARRIVES_AT_FLOOR("Arrives at floor", 0L),
+        DOOR_OPENING("Door opening", 3L),
+        DOOR_CLOSING("Door closing", 3L),
+        LOADING_FIRST_PERSON("Loading first person", 9L),
+        LOADING_NEXT_PERSON("Loading next person", 6L),
+        UNLOADING_FIRST_PERSON("Unloading first person", 9L),
+        UNLOADING_NEXT_PERSON("Unloading next person", 6L),
+        STAND_BY_AT_FLOOR("Stand by at floor", 3L),
+        STOPPING_AT_FLOOR("Stopping at floor", 3L),
+        FIRST_LOADING_ATTEMPT("First loading attempt", 0L),
+        NEXT_LOADING_ATTEMPT("Next loading attempt", 0L);
+
+        private final String label;
+        // in seconds, the default of BuildingConfig
+        private final long duration;
+
+        Kind(String label, long duration) {
+            this.label = label;
+            this.duration = duration;
+        }
 
-import static org.paumard.elevator.Building.PRINTER;
-
-public class Event {
-
-    public static final String ARRIVES_AT_FLOOR = "Arrives at floor";
-    public static final String ELEVATOR_STARTS = "Elevator starts";
-    public static final String DOOR_OPENING = "Door opening";
-    public static final String DOOR_CLOSING = "Door closing";
-    public static final String LOADING_FIRST_PERSON = "Loading first person";
-    public static final String LOADING_NEXT_PERSON = "Loading next person";
-    public static final String UNLOADING_FIRST_PERSON = "Unloading first person";
-    public static final String UNLOADING_NEXT_PERSON = "Unloading next person";
-    public static final String STAND_BY_AT_FLOOR = "Stand by at floor";
-    public static final String STOPPING_AT_FLOOR = "Stopping at floor";
-    public static final String FIRST_LOADING_ATTEMPT = "First loading attempt";
-    public static final String NEXT_LOADING_ATTEMPT = "Next loading attempt";
-
-    public static NavigableMap<Duration, Long> durations = new TreeMap<>();
-
-    private Elevator elevator;
-    private String name;
-    private int currentFloor;
-    private List<Person> people;
-    int nextFloor;
-    private List<Integer> nextFloors;
-    private Duration duration;
-
-    public Event(Elevator elevator, String name, Duration duration) {
-        this.elevator = elevator;
-        this.name = name;
-        this.duration = duration;
-    }
-
-    public Event(Elevator elevator, String name, Duration duration, int nextFloor) {
-        this.elevator = elevator;
-        this.name = name;
-        this.duration = duration;
-        this.nextFloor = nextFloor;
-    }
+        public String getLabel() {
+            return label;
+        }
 
-    public Event(Elevator elevator, String name, Duration duration, List<Person> people) {
-        this.elevator = elevator;
-        this.name = name;
-        this.duration = duration;
-        this.people = people;
-    }
+        public long getDuration() {
+            return duration;
+        }
 
-    public Event(Elevator elevator, String name, Duration duration, int currentFloor, int nextFloor) {
-        this.elevator = elevator;
-        this.name = name;
-        this.duration = duration;
-        this.currentFloor = currentFloor;
-        this.nextFloor = nextFloor;
+        public boolean isLoadingAttempt() {
+            return this == FIRST_LOADING_ATTEMPT || this == NEXT_LOADING_ATTEMPT;
+        }
     }
 
-    public Event(Elevator elevator, String name, int currentFloor, List<Integer> nextFloors) {
-        this.elevator = elevator;
-        this.name = name;
-        this.currentFloor = currentFloor;
-        this.nextFloors = nextFloors;
-    }
+    Kind kind();
 
-    public Event(Elevator elevator, String name) {
-        this.elevator = elevator;
-        this.name = name;
-        this.duration = Duration.ofSeconds(0);
-    }
+    // the index of the elevator in the order it was added to the engine
+    int elevatorIndex();
 
-    public static List<Event> createStartEventFor(Elevators elevators) {
-        return elevators.getElevators().stream()
-                .map(elevator -> new Event(elevator, ELEVATOR_STARTS))
+    static List<Event> createStartEventFor(Elevators elevators) {
+        return IntStream.range(0, elevators.count())
+                .mapToObj(ElevatorStarts::new)
                 .collect(Collectors.toList());
     }
 
-    public LocalTime getTimeOfArrivalFrom(LocalTime time) {
-        return time.plus(this.getDuration());
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    public List<Person> getPeople() {
-        return people;
+    default long getTimeOfArrivalFrom(long time, BuildingConfig config) {
+        return time + config.getDuration(kind());
     }
 
-    public Duration getDuration() {
-        return duration;
-    }
-
-    public static Duration computeDuration(int currentFloor, int nextFloor) {
-
-        if (currentFloor == nextFloor) {
-            return Duration.ofSeconds(0);
-        } else if (Math.abs(currentFloor - nextFloor) == 1) {
-            return Duration.ofSeconds(18);
-        } else if (Math.abs(currentFloor - nextFloor) <= 3) {
-            return Duration.ofSeconds(24 + Math.abs(currentFloor - nextFloor - 1) * 6);
-        } else {
-            return Duration.ofSeconds(36 + Math.abs(currentFloor - nextFloor - 3) * 3);
-        }
-    }
-
-    public static DIRECTION computeDirection(int currentFloor, List<Integer> nextFloors) {
+    static DIRECTION computeDirection(int currentFloor, Route nextFloors) {
         DIRECTION direction = DIRECTION.STOP;
-        if (nextFloors.isEmpty() || nextFloors.get(0) == currentFloor) {
+        if (nextFloors.isEmpty() || nextFloors.getFirst() == currentFloor) {
             return DIRECTION.STOP;
-        } else if (nextFloors.get(0) > currentFloor) {
+        } else if (nextFloors.getFirst() > currentFloor) {
             direction = DIRECTION.UP;
-        } else if (nextFloors.get(0) < currentFloor) {
+        } else if (nextFloors.getFirst() < currentFloor) {
             direction = DIRECTION.DOWN;
         }
         return direction;
     }
 
 
-    public static Event fromElevatorStartAtFloor(LocalTime time, Elevator elevator, ShadowElevator shadowElevator, int startingFloor) {
+    static Event fromElevatorStartAtFloor(SimulationEngine engine, ElevatorController elevator, ShadowElevator shadowElevator, int startingFloor) {
 
-        PRINTER.printf("\n[%s] Elevator [%s] starting at floor %d\n", time, elevator.getId(), startingFloor);
+        long time = engine.getTime();
+        SimulationLog log = engine.getLog();
 
-        elevator.startsAtFloor(time, startingFloor);
+        log.print(Verbosity.EVENTS, time, "\n[%s] Elevator [%s] starting at floor %d\n", elevator.getId(), startingFloor);
+
+        elevator.startsAtFloor(SimTime.toLocalTime(time), startingFloor);
         shadowElevator.startsAtFloor(startingFloor);
 
-        List<Integer> nextFloors = elevator.chooseNextFloors();
-        printElevatorGoingTo(time, elevator, startingFloor, nextFloors);
+        Route nextFloors = Route.of(elevator.chooseNextFloors());
+        printElevatorGoingTo(log, time, elevator, startingFloor, nextFloors);
 
         DIRECTION direction = computeDirection(startingFloor, nextFloors);
 
-        int nextFloor = direction == DIRECTION.STOP ? startingFloor : nextFloors.get(0);
+        int nextFloor = direction == DIRECTION.STOP ? startingFloor : nextFloors.getFirst();
         shadowElevator.setNextFloors(nextFloors);
 
         if (direction == DIRECTION.STOP) {
-            if (shadowElevator.hasLastPersonArrived()) {
+            if (isStopping(elevator, shadowElevator)) {
                 shadowElevator.stopping();
-                PRINTER.printf("\n[%s] Elevator [%s] stopping at floor %d\n", time, elevator.getId(), startingFloor);
-                return new StoppingAtFloor(elevator, startingFloor);
+                log.print(Verbosity.EVENTS, time, "\n[%s] Elevator [%s] stopping at floor %d\n", elevator.getId(), startingFloor);
+                return new StoppingAtFloor(shadowElevator.getIndex(), startingFloor);
             } else {
-                PRINTER.printf("\n[%s] Elevator [%s] standby at floor %d\n", time, elevator.getId(), startingFloor);
-                return new StandByAtFloor(elevator);
+                log.print(Verbosity.EVENTS, time, "\n[%s] Elevator [%s] standby at floor %d\n", elevator.getId(), startingFloor);
+                return new StandByAtFloor(shadowElevator.getIndex());
             }
         }
 
-        PRINTER.printf("[%s] Elevator [%s] going %s to floor %d from floor %d\n", time, elevator.getId(), direction, nextFloor, startingFloor);
+        log.print(Verbosity.EVENTS, time, "[%s] Elevator [%s] going %s to floor %d from floor %d\n", elevator.getId(), direction, nextFloor, startingFloor);
 
-        return new AttemptToLoadFirstPerson(elevator, startingFloor, nextFloors);
+        return new AttemptToLoadFirstPerson(shadowElevator.getIndex(), startingFloor, nextFloors);
     }
 
-    public static Event fromElevatorStart(LocalTime time, Elevator elevator, ShadowElevator shadowElevator) {
-        return fromElevatorStartAtFloor(time, elevator, shadowElevator, 1);
-    }
+    static Event fromArrivesAtFloor(SimulationEngine engine, ElevatorController elevator, ShadowElevator shadowElevator) {
 
-    public static Event fromArrivesAtFloor(LocalTime time, Elevator elevator, ShadowElevator shadowElevator) {
-        List<Integer> currentFloors = shadowElevator.getNextFloors();
+        long time = engine.getTime();
+        SimulationLog log = engine.getLog();
 
-        int currentFloor = currentFloors.get(0);
+        Route currentFloors = shadowElevator.getNextFloors();
+
+        int currentFloor = currentFloors.getFirst();
         elevator.arriveAtFloor(currentFloor);
         shadowElevator.moveTo(currentFloor);
 
-        PRINTER.printf("\n[%s] Elevator [%s] arrived at floor %d\n", time, elevator.getId(), currentFloor);
+        log.print(Verbosity.EVENTS, time, "\n[%s] Elevator [%s] arrived at floor %d\n", elevator.getId(), currentFloor);
 
-        return new DoorOpening(elevator);
+        return new DoorOpening(shadowElevator.getIndex());
     }
 
-    public static Event fromDoorOpening(LocalTime time, Elevator elevator, ShadowElevator shadowElevator) {
+    static Event fromDoorOpening(SimulationEngine engine, ElevatorController elevator, ShadowElevator shadowElevator) {
+
+        long time = engine.getTime();
+        SimulationLog log = engine.getLog();
 
         int currentFloor = shadowElevator.getCurrentFloor();
 
-        PRINTER.printf("[%s] Elevator [%s] door opened at floor %d\n", time, elevator.getId(), currentFloor);
+        log.print(Verbosity.EVENTS, time, "[%s] Elevator [%s] door opened at floor %d\n", elevator.getId(), currentFloor);
 
         List<Person> nextPersonToUnload = shadowElevator.getNextPeopleToUnload(currentFloor);
         if (!nextPersonToUnload.isEmpty()) {
 
-            return new UnloadingFirstPerson(elevator, nextPersonToUnload);
+            return new UnloadingFirstPerson(shadowElevator.getIndex(), nextPersonToUnload);
 
         } else {
 
-            List<Integer> nextFloors = elevator.chooseNextFloors();
-            printElevatorGoingTo(time, elevator, currentFloor, nextFloors);
+            Route nextFloors = Route.of(elevator.chooseNextFloors());
+            printElevatorGoingTo(log, time, elevator, currentFloor, nextFloors);
 
             DIRECTION direction = computeDirection(currentFloor, nextFloors);
-            int nextFloor = direction == DIRECTION.STOP ? currentFloor : nextFloors.get(0);
+            int nextFloor = direction == DIRECTION.STOP ? currentFloor : nextFloors.getFirst();
             shadowElevator.setNextFloors(nextFloors);
 
             if (direction == DIRECTION.STOP) {
-                if (shadowElevator.hasLastPersonArrived()) {
+                if (isStopping(elevator, shadowElevator)) {
                     shadowElevator.stopping();
-                    PRINTER.printf("\n[%s] Elevator [%s] stopping at floor %d\n", time, elevator.getId(), currentFloor);
-                    return new StoppingAtFloor(elevator, currentFloor);
+                    log.print(Verbosity.EVENTS, time, "\n[%s] Elevator [%s] stopping at floor %d\n", elevator.getId(), currentFloor);
+                    return new StoppingAtFloor(shadowElevator.getIndex(), currentFloor);
                 } else {
-                    PRINTER.printf("\n[%s] Elevator [%s] standby at floor %d\n", time, elevator.getId(), currentFloor);
-                    return new StandByAtFloor(elevator);
+                    log.print(Verbosity.EVENTS, time, "\n[%s] Elevator [%s] standby at floor %d\n", elevator.getId(), currentFloor);
+                    return new StandByAtFloor(shadowElevator.getIndex());
                 }
             }
 
-            PRINTER.printf("[%s] Elevator [%s] going %s to floor %d from floor %d\n", time, elevator.getId(), direction, nextFloor, currentFloor);
+            log.print(Verbosity.EVENTS, time, "[%s] Elevator [%s] going %s to floor %d from floor %d\n", elevator.getId(), direction, nextFloor, currentFloor);
 
-            return new AttemptToLoadFirstPerson(elevator, currentFloor, nextFloors);
+            return new AttemptToLoadFirstPerson(shadowElevator.getIndex(), currentFloor, nextFloors);
         }
     }
 
-    public static Event fromDoorClosing(LocalTime time, Elevator elevator, ShadowElevator shadowElevator) {
+    static Event fromDoorClosing(SimulationEngine engine, ElevatorController elevator, ShadowElevator shadowElevator) {
+
+        long time = engine.getTime();
+        SimulationLog log = engine.getLog();
+
         int currentFloor = shadowElevator.getCurrentFloor();
-        List<Integer> nextFloors = shadowElevator.getNextFloors();
-        int nextFloor = nextFloors.get(0);
+        Route nextFloors = shadowElevator.getNextFloors();
+        int nextFloor = nextFloors.getFirst();
 
-        PRINTER.printf("[%s] Elevator [%s] door closed at floor %d, going to floor %d\n", time, elevator.getId(), currentFloor, nextFloor);
+        log.print(Verbosity.EVENTS, time, "[%s] Elevator [%s] door closed at floor %d, going to floor %d\n", elevator.getId(), currentFloor, nextFloor);
 
-        Duration duration = computeDuration(currentFloor, nextFloor);
-        return new ArriveAtFloor(elevator, duration, nextFloor);
+        long duration = engine.getConfig().getTravelDuration(currentFloor, nextFloor);
+        return new ArriveAtFloor(shadowElevator.getIndex(), duration, nextFloor);
     }
 
-    public static Event fromStandByAtFloor(LocalTime time, Elevator elevator, ShadowElevator shadowElevator) {
+    static Event fromStandByAtFloor(SimulationEngine engine, ElevatorController elevator, ShadowElevator shadowElevator) {
+
+        long time = engine.getTime();
+        SimulationLog log = engine.getLog();
 
         int currentFloor = shadowElevator.getCurrentFloor();
         elevator.standByAtFloor(currentFloor);
 
-        List<Integer> nextFloors = elevator.chooseNextFloors();
-        printElevatorGoingTo(time, elevator, currentFloor, nextFloors);
+        Route nextFloors = Route.of(elevator.chooseNextFloors());
+        printElevatorGoingTo(log, time, elevator, currentFloor, nextFloors);
 
         shadowElevator.setNextFloors(nextFloors);
 
@@ -239,224 +205,269 @@ public class Event {
             boolean hasNextPeopleToLoad = shadowElevator.hasNextPeopleToLoad(nextFloors, currentFloor);
 
             if (hasNextPeopleToLoad) {
-                return new AttemptToLoadFirstPerson(elevator, currentFloor, nextFloors);
+                return new AttemptToLoadFirstPerson(shadowElevator.getIndex(), currentFloor, nextFloors);
             } else {
-                int nextFloor = nextFloors.get(0);
+                int nextFloor = nextFloors.getFirst();
                 if (nextFloor != currentFloor) {
-                    return new DoorClosing(elevator, currentFloor, nextFloor);
+                    return new DoorClosing(shadowElevator.getIndex(), currentFloor, nextFloor);
                 }
             }
 
         } else {
-            int nextFloor = nextFloors.get(0);
+            int nextFloor = nextFloors.getFirst();
             if (nextFloor != currentFloor) {
-                return new DoorClosing(elevator, currentFloor, nextFloor);
+                return new DoorClosing(shadowElevator.getIndex(), currentFloor, nextFloor);
             }
         }
 
-        if (shadowElevator.hasLastPersonArrived()) {
-            PRINTER.printf("\n[%s] Elevator [%s] stopping at floor %d\n", time, elevator.getId(), currentFloor);
-            return new StoppingAtFloor(elevator, currentFloor);
+        if (isStopping(elevator, shadowElevator)) {
+            log.print(Verbosity.EVENTS, time, "\n[%s] Elevator [%s] stopping at floor %d\n", elevator.getId(), currentFloor);
+            return new StoppingAtFloor(shadowElevator.getIndex(), currentFloor);
         } else {
-            return new StandByAtFloor(elevator);
+            return new StandByAtFloor(shadowElevator.getIndex());
         }
     }
 
-    private static void printElevatorGoingTo(LocalTime time, Elevator elevator, int currentFloor, List<Integer> nextFloors) {
-        if (nextFloors.get(0) != currentFloor) {
-            PRINTER.printf("[%s] Elevator [%s] decides to go to floor %s\n", time, elevator.getId(), nextFloors.toString());
+    // once the last person arrived, an elevator that stays where it is stops for good, unless it is a fallback
+    private static boolean isStopping(ElevatorController elevator, ShadowElevator shadowElevator) {
+        return shadowElevator.hasLastPersonArrived() && !elevator.isFallingBack();
+    }
+
+    private static void printElevatorGoingTo(SimulationLog log, long time, ElevatorController elevator, int currentFloor, Route nextFloors) {
+        // the route belongs to the shadow elevator, so it is turned into a string right away
+        if (nextFloors.getFirst() != currentFloor && log.isEnabled(Verbosity.EVENTS)) {
+            log.print(Verbosity.EVENTS, time, "[%s] Elevator [%s] decides to go to floor %s\n", elevator.getId(), nextFloors.toString());
         }
     }
 
-    public static Event fromLoadingFirstPerson(LocalTime time, ShadowElevator shadowElevator, Elevator elevator, Event nextEvent) {
+    static Event fromLoadingFirstPerson(SimulationEngine engine, ShadowElevator shadowElevator, ElevatorController elevator, LoadingFirstPerson nextEvent) {
+
+        long time = engine.getTime();
+        SimulationLog log = engine.getLog();
 
         int currentFloor = shadowElevator.getCurrentFloor();
-        List<Person> people = nextEvent.getPeople();
+        List<Person> people = nextEvent.people();
         shadowElevator.loadPeople(people);
-        elevator.loadPeople(people);
-        List<Integer> nextFloors = shadowElevator.getNextFloors();
+        elevator.onBoarded(currentFloor, people);
+        Route nextFloors = shadowElevator.getNextFloors();
 
-        for (Person person : people) {
-            PRINTER.printf("[%s] Elevator [%s] person loaded [%s] at floor %d\n", time, elevator.getId(), person.toString(), currentFloor);
+        if (log.isEnabled(Verbosity.EVENTS)) {
+            for (Person person : people) {
+                log.print(Verbosity.EVENTS, time, "[%s] Elevator [%s] person loaded [%s] at floor %d\n", elevator.getId(), person.toString(time), currentFloor);
+            }
         }
 
         boolean hasNextPeopleToLoad = shadowElevator.hasNextPeopleToLoad(nextFloors, currentFloor);
         if (hasNextPeopleToLoad) {
 
-            return new AttemptToLoadFirstPerson(elevator, currentFloor, nextFloors);
+            return new AttemptToLoadFirstPerson(shadowElevator.getIndex(), currentFloor, nextFloors);
 
         } else {
 
-            return new DoorClosing(elevator, currentFloor, nextFloors.get(0));
+            return new DoorClosing(shadowElevator.getIndex(), currentFloor, nextFloors.getFirst());
         }
     }
 
-    public static Event fromLoadingNextPerson(LocalTime time, ShadowElevator shadowElevator, Elevator elevator, Event nextEvent) {
+    static Event fromLoadingNextPerson(SimulationEngine engine, ShadowElevator shadowElevator, ElevatorController elevator, LoadingNextPerson nextEvent) {
 
         int currentFloor = shadowElevator.getCurrentFloor();
-        List<Integer> nextFloors = shadowElevator.getNextFloors();
+        Route nextFloors = shadowElevator.getNextFloors();
 
-        return new AttemptToLoadNextPerson(elevator, currentFloor, nextFloors);
+        return new AttemptToLoadNextPerson(shadowElevator.getIndex(), currentFloor, nextFloors);
     }
 
-    public static Event fromUnloadingFirstPerson(LocalTime time, ShadowElevator shadowElevator, Elevator elevator, Event nextEvent) {
+    static Event fromUnloadingFirstPerson(SimulationEngine engine, ShadowElevator shadowElevator, ElevatorController elevator, UnloadingFirstPerson nextEvent) {
 
-        return fromUnloadingPerson(time, elevator, shadowElevator, nextEvent);
+        return fromUnloadingPerson(engine, elevator, shadowElevator, nextEvent.people());
     }
 
-    public static Event fromUnloadingNextPerson(LocalTime time, ShadowElevator shadowElevator, Elevator elevator, Event nextEvent) {
+    static Event fromUnloadingNextPerson(SimulationEngine engine, ShadowElevator shadowElevator, ElevatorController elevator, UnloadingNextPerson nextEvent) {
 
-        return fromUnloadingPerson(time, elevator, shadowElevator, nextEvent);
+        return fromUnloadingPerson(engine, elevator, shadowElevator, nextEvent.people());
     }
 
-    private static Event fromUnloadingPerson(LocalTime time, Elevator elevator, ShadowElevator shadowElevator, Event nextEvent) {
+    private static Event fromUnloadingPerson(SimulationEngine engine, ElevatorController elevator, ShadowElevator shadowElevator, List<Person> people) {
+
+        long time = engine.getTime();
+        SimulationLog log = engine.getLog();
+
         int currentFloor = shadowElevator.getCurrentFloor();
-        List<Person> people = nextEvent.getPeople();
         shadowElevator.unload(people);
-        elevator.unload(people);
+        elevator.onAlighted(currentFloor, people);
 
         for (Person person : people) {
-            Duration travelDuration = Duration.between(person.getArrivalTime(), time);
-            durations.merge(travelDuration, 1L, Long::sum);
+            engine.addTravelDuration(time - person.getArrivalSimTime());
 
-            PRINTER.printf("[%s] Elevator [%s] person unloaded [%s] at floor %d\n", time, elevator.getId(), person.toString(), currentFloor);
+            if (log.isEnabled(Verbosity.EVENTS)) {
+                log.print(Verbosity.EVENTS, time, "[%s] Elevator [%s] person unloaded [%s] at floor %d\n", elevator.getId(), person.toString(time), currentFloor);
+            }
         }
 
         List<Person> nextPeopleToUnload = shadowElevator.getNextPeopleToUnload(currentFloor);
         if (!nextPeopleToUnload.isEmpty()) {
 
-            return new UnloadingNextPerson(elevator, nextPeopleToUnload);
+            return new UnloadingNextPerson(shadowElevator.getIndex(), nextPeopleToUnload);
 
         } else {
 
-            List<Integer> nextFloors = elevator.chooseNextFloors();
-            printElevatorGoingTo(time, elevator, currentFloor, nextFloors);
+            Route nextFloors = Route.of(elevator.chooseNextFloors());
+            printElevatorGoingTo(log, time, elevator, currentFloor, nextFloors);
 
             DIRECTION direction = computeDirection(currentFloor, nextFloors);
-            int nextFloor = direction == DIRECTION.STOP ? currentFloor : nextFloors.get(0);
+            int nextFloor = direction == DIRECTION.STOP ? currentFloor : nextFloors.getFirst();
             shadowElevator.setNextFloors(nextFloors);
 
             if (direction == DIRECTION.STOP) {
-                if (shadowElevator.hasLastPersonArrived()) {
+                if (isStopping(elevator, shadowElevator)) {
                     shadowElevator.stopping();
-                    PRINTER.printf("\n[%s] Elevator [%s] stopping at floor %d\n", time, elevator.getId(), currentFloor);
-                    return new StoppingAtFloor(elevator, currentFloor);
+                    log.print(Verbosity.EVENTS, time, "\n[%s] Elevator [%s] stopping at floor %d\n", elevator.getId(), currentFloor);
+                    return new StoppingAtFloor(shadowElevator.getIndex(), currentFloor);
                 } else {
-                    PRINTER.printf("\n[%s] Elevator [%s] standing by at floor %d\n", time, elevator.getId(), currentFloor);
-                    return new StandByAtFloor(elevator);
+                    log.print(Verbosity.EVENTS, time, "\n[%s] Elevator [%s] standing by at floor %d\n", elevator.getId(), currentFloor);
+                    return new StandByAtFloor(shadowElevator.getIndex());
                 }
             }
 
-            return new AttemptToLoadFirstPerson(elevator, currentFloor, nextFloors);
+            return new AttemptToLoadFirstPerson(shadowElevator.getIndex(), currentFloor, nextFloors);
         }
     }
 
-    public Elevator getElevator() {
-        return this.elevator;
-    }
-
-    public int getCurrentFloor() {
-        return this.currentFloor;
-    }
+    record ElevatorStarts(int elevatorIndex) implements Event {
 
-    public List<Integer> getNextFloors() {
-        return this.nextFloors;
+        @Override
+        public Kind kind() {
+            return Kind.ELEVATOR_STARTS;
+        }
     }
 
-    public static class ArriveAtFloor extends Event {
+    record ArriveAtFloor(int elevatorIndex, long duration, int nextFloor) implements Event {
 
-        public ArriveAtFloor(Elevator elevator, Duration duration, int nextFloor) {
-            super(elevator, Event.ARRIVES_AT_FLOOR, duration, nextFloor);
+        @Override
+        public Kind kind() {
+            return Kind.ARRIVES_AT_FLOOR;
         }
 
+        @Override
+        public long getTimeOfArrivalFrom(long time, BuildingConfig config) {
+            return time + duration;
+        }
     }
 
-    public static class DoorOpening extends Event {
+    record DoorOpening(int elevatorIndex) implements Event {
 
-        public DoorOpening(Elevator elevator) {
-            super(elevator, Event.DOOR_OPENING, Duration.ofSeconds(3));
+        @Override
+        public Kind kind() {
+            return Kind.DOOR_OPENING;
         }
-
     }
 
-    public static class LoadingFirstPerson extends Event {
+    record LoadingFirstPerson(int elevatorIndex, List<Person> people) implements Event {
 
-        public LoadingFirstPerson(Elevator elevator, List<Person> people) {
-            super(elevator, Event.LOADING_FIRST_PERSON, Duration.ofSeconds(9), people);
+        @Override
+        public Kind kind() {
+            return Kind.LOADING_FIRST_PERSON;
         }
-
     }
 
-    public static class UnloadingFirstPerson extends Event {
+    record UnloadingFirstPerson(int elevatorIndex, List<Person> people) implements Event {
 
-        public UnloadingFirstPerson(Elevator elevator, List<Person> people) {
-            super(elevator, UNLOADING_FIRST_PERSON, Duration.ofSeconds(9), people);
+        @Override
+        public Kind kind() {
+            return Kind.UNLOADING_FIRST_PERSON;
         }
     }
 
-    public static class DoorClosing extends Event {
-        public DoorClosing(Elevator elevator, int currentFloor, int nextFloor) {
-            super(elevator, DOOR_CLOSING, Duration.ofSeconds(3), currentFloor, nextFloor);
+    record DoorClosing(int elevatorIndex, int currentFloor, int nextFloor) implements Event {
+
+        @Override
+        public Kind kind() {
+            return Kind.DOOR_CLOSING;
         }
     }
 
-    public static class LoadingNextPerson extends Event {
-        public LoadingNextPerson(Elevator elevator, List<Person> people) {
-            super(elevator, LOADING_NEXT_PERSON, Duration.ofSeconds(6), people);
-        }
+    record LoadingNextPerson(int elevatorIndex, List<Person> people) implements Event {
 
+        @Override
+        public Kind kind() {
+            return Kind.LOADING_NEXT_PERSON;
+        }
     }
 
-    public static class UnloadingNextPerson extends Event {
-        public UnloadingNextPerson(Elevator elevator, List<Person> people) {
-            super(elevator, UNLOADING_NEXT_PERSON, Duration.ofSeconds(6), people);
+    record UnloadingNextPerson(int elevatorIndex, List<Person> people) implements Event {
+
+        @Override
+        public Kind kind() {
+            return Kind.UNLOADING_NEXT_PERSON;
         }
     }
 
-    public static class AttemptToLoadFirstPerson extends Event {
+    sealed interface LoadingAttempt extends Event {
 
-        private List<Person> peopleToLoad = new ArrayList<>();
+        int currentFloor();
 
-        public AttemptToLoadFirstPerson(Elevator elevator, int currentFloor, List<Integer> nextFloors) {
-            super(elevator, FIRST_LOADING_ATTEMPT, currentFloor, nextFloors);
-        }
+        Route nextFloors();
+
+        List<Person> peopleToLoad();
 
-        public void addPerson(Person person) {
-            this.peopleToLoad.add(person);
+        default void addPerson(Person person) {
+            peopleToLoad().add(person);
         }
 
-        public List<Person> getPeopleToLoad() {
-            return this.peopleToLoad;
+        default Event toLoadingEvent(List<Person> peopleToLoad) {
+            int nextFloor = nextFloors().getFirst();
+            if (peopleToLoad.isEmpty()) {
+                return new DoorClosing(elevatorIndex(), currentFloor(), nextFloor);
+            }
+            switch (kind()) {
+                case FIRST_LOADING_ATTEMPT:
+                    return new LoadingFirstPerson(elevatorIndex(), peopleToLoad);
+                case NEXT_LOADING_ATTEMPT:
+                    return new LoadingNextPerson(elevatorIndex(), peopleToLoad);
+                default:
+                    throw new IllegalStateException("Not a loading attempt: " + kind());
+            }
         }
     }
 
-    public static class AttemptToLoadNextPerson extends Event {
+    record AttemptToLoadFirstPerson(int elevatorIndex, int currentFloor, Route nextFloors, List<Person> peopleToLoad)
+            implements LoadingAttempt {
 
-        private List<Person> peopleToLoad = new ArrayList<>();
+        public AttemptToLoadFirstPerson(int elevatorIndex, int currentFloor, Route nextFloors) {
+            this(elevatorIndex, currentFloor, nextFloors, new ArrayList<>());
+        }
 
-        public AttemptToLoadNextPerson(Elevator elevator, int currentFloor, List<Integer> nextFloors) {
-            super(elevator, NEXT_LOADING_ATTEMPT, currentFloor, nextFloors);
+        @Override
+        public Kind kind() {
+            return Kind.FIRST_LOADING_ATTEMPT;
         }
+    }
+
+    record AttemptToLoadNextPerson(int elevatorIndex, int currentFloor, Route nextFloors, List<Person> peopleToLoad)
+            implements LoadingAttempt {
 
-        public void addPerson(Person person) {
-            this.peopleToLoad.add(person);
+        public AttemptToLoadNextPerson(int elevatorIndex, int currentFloor, Route nextFloors) {
+            this(elevatorIndex, currentFloor, nextFloors, new ArrayList<>());
         }
 
-        public List<Person> getPeopleToLoad() {
-            return this.peopleToLoad;
+        @Override
+        public Kind kind() {
+            return Kind.NEXT_LOADING_ATTEMPT;
         }
     }
 
-    public static class StandByAtFloor extends Event {
+    record StandByAtFloor(int elevatorIndex) implements Event {
 
-        public StandByAtFloor(Elevator elevator) {
-            super(elevator, STAND_BY_AT_FLOOR, Duration.ofSeconds(3));
+        @Override
+        public Kind kind() {
+            return Kind.STAND_BY_AT_FLOOR;
         }
     }
 
-    private static class StoppingAtFloor extends Event {
-        public StoppingAtFloor(Elevator elevator, int currentFloor) {
-            super(elevator, STOPPING_AT_FLOOR, Duration.ofSeconds(3), currentFloor);
+    record StoppingAtFloor(int elevatorIndex, int currentFloor) implements Event {
+
+        @Override
+        public Kind kind() {
+            return Kind.STOPPING_AT_FLOOR;
         }
     }
 }
@@ -0,0 +1,107 @@
+package org.paumard.elevator.event;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class EventQueue {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // binary min-heap stored in parallel arrays, ordered by time then by insertion order,
+    // so that events scheduled at the same time come out first in, first out
+    private long[] times = new long[INITIAL_CAPACITY];
+    private long[] sequences = new long[INITIAL_CAPACITY];
+    private Event[] events = new Event[INITIAL_CAPACITY];
+    private int size = 0;
+    private long nextSequence = 0L;
+
+    public void add(long time, Event event) {
+        if (size == events.length) {
+            int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            sequences = Arrays.copyOf(sequences, capacity);
+            events = Arrays.copyOf(events, capacity);
+        }
+        int index = size++;
+        long sequence = nextSequence++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isBefore(time, sequence, parent)) {
+                break;
+            }
+            moveTo(parent, index);
+            index = parent;
+        }
+        set(index, time, sequence, event);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long peekTime() {
+        if (size == 0) {
+            throw new NoSuchElementException("No event scheduled");
+        }
+        return times[0];
+    }
+
+    public Event poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("No event scheduled");
+        }
+        Event first = events[0];
+        int last = --size;
+        long time = times[last];
+        long sequence = sequences[last];
+        Event event = events[last];
+        events[last] = null;
+        if (last > 0) {
+            int index = 0;
+            int half = last >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                int right = child + 1;
+                if (right < last && isBefore(times[right], sequences[right], child)) {
+                    child = right;
+                }
+                if (!isBefore(times[child], sequences[child], time, sequence)) {
+                    break;
+                }
+                moveTo(child, index);
+                index = child;
+            }
+            set(index, time, sequence, event);
+        }
+        return first;
+    }
+
+    public void pollAllAt(long time, List<Event> polledEvents) {
+        while (size > 0 && times[0] == time) {
+            polledEvents.add(poll());
+        }
+    }
+
+    private boolean isBefore(long time, long sequence, int index) {
+        return isBefore(time, sequence, times[index], sequences[index]);
+    }
+
+    private static boolean isBefore(long time1, long sequence1, long time2, long sequence2) {
+        return time1 < time2 || (time1 == time2 && sequence1 < sequence2);
+    }
+
+    private void moveTo(int from, int to) {
+        set(to, times[from], sequences[from], events[from]);
+    }
+
+    private void set(int index, long time, long sequence, Event event) {
+        times[index] = time;
+        sequences[index] = sequence;
+        events[index] = event;
+    }
+}
@@ -0,0 +1,115 @@
+package org.paumard.elevator.model;
+
+import org.paumard.elevator.system.SimTime;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class AffluenceTable {
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    private static BinaryOperator<Double> unused = (d1, d2) -> d1;
+
+    public enum Interpolation {
+        STEP, LINEAR
+    }
+
+    // the curve is compiled once into arrays indexed by tick of the day,
+    // so that a lookup is an array read
+    private final int tickDuration;
+    private final double[] affluence;
+    private final double[] maxAffluenceInPeriod;
+    private final int[] endOfPeriod;
+
+    private AffluenceTable(NavigableMap<LocalTime, Double> points, Interpolation interpolation, int tickDuration) {
+        int ticksPerDay = SECONDS_PER_DAY / tickDuration;
+        this.tickDuration = tickDuration;
+        this.affluence = new double[ticksPerDay];
+        this.maxAffluenceInPeriod = new double[ticksPerDay];
+        this.endOfPeriod = new int[ticksPerDay];
+        for (int tick = 0; tick < ticksPerDay; tick++) {
+            LocalTime time = LocalTime.ofSecondOfDay((long) tick * tickDuration);
+            Map.Entry<LocalTime, Double> point = points.floorEntry(time);
+            Map.Entry<LocalTime, Double> nextPoint = point == null ? points.firstEntry() : points.higherEntry(point.getKey());
+            endOfPeriod[tick] = nextPoint == null ? SECONDS_PER_DAY : nextPoint.getKey().toSecondOfDay();
+
+            if (point == null) {
+                // no one comes before the first point of the curve
+                affluence[tick] = 0d;
+                maxAffluenceInPeriod[tick] = 0d;
+            } else if (nextPoint == null || interpolation == Interpolation.STEP) {
+                affluence[tick] = point.getValue();
+                maxAffluenceInPeriod[tick] = point.getValue();
+            } else {
+                double from = point.getValue();
+                double to = nextPoint.getValue();
+                double ratio = (double) (time.toSecondOfDay() - point.getKey().toSecondOfDay()) /
+                        (nextPoint.getKey().toSecondOfDay() - point.getKey().toSecondOfDay());
+                affluence[tick] = from + (to - from) * ratio;
+                maxAffluenceInPeriod[tick] = Math.max(from, to);
+            }
+        }
+    }
+
+    // the tick duration should divide a day
+    public static AffluenceTable load(Path affluenceFile, Interpolation interpolation, int tickDuration) {
+        try (Stream<String> lines = Files.lines(affluenceFile)) {
+            NavigableMap<LocalTime, Double> points = lines
+                    .filter(line -> !line.isBlank())
+                    .filter(line -> !line.startsWith("#"))
+                    .map(Affluence::of)
+                    .collect(Collectors.toMap(Affluence::getTime, Affluence::getAffluence, unused, TreeMap::new));
+            return new AffluenceTable(points, interpolation, tickDuration);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the affluence file " + affluenceFile.toAbsolutePath(), e);
+        }
+    }
+
+    // the same curve is used for every simulated day
+    public double affluenceAt(long time) {
+        return affluence[SimTime.secondOfDay(time) / tickDuration];
+    }
+
+    public double maxAffluenceInPeriodAt(long time) {
+        return maxAffluenceInPeriod[SimTime.secondOfDay(time) / tickDuration];
+    }
+
+    public long endOfPeriodAt(long time) {
+        return time - SimTime.secondOfDay(time) + endOfPeriod[SimTime.secondOfDay(time) / tickDuration];
+    }
+
+    private static class Affluence {
+
+        private LocalTime time;
+        private double affluence;
+
+        private Affluence(LocalTime time, double affluence) {
+            this.time = time;
+            this.affluence = affluence;
+        }
+
+        static Affluence of(String line) {
+            String timeAsString = line.substring(0, line.indexOf(';'));
+            LocalTime time = LocalTime.parse(timeAsString);
+            double affluence = Double.parseDouble(line.substring(line.lastIndexOf(';') + 1));
+            return new Affluence(time, affluence);
+        }
+
+        public LocalTime getTime() {
+            return time;
+        }
+
+        public double getAffluence() {
+            return affluence;
+        }
+    }
+}
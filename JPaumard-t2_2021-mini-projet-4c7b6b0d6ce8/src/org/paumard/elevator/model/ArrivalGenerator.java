@@ -0,0 +1,154 @@
+package org.paumard.elevator.model;
+
+import org.paumard.elevator.BuildingConfig;
+import org.paumard.elevator.system.SimTime;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ArrivalGenerator {
+
+    public static final double PROBABLITY_TO_CALL_FROM_1 = 0.8d;
+    private static final double PROBABLITY_NOT_TO_CALL_FROM_1 = 0.9d;
+    private static final double ADJUSTMENT_COEFFICIENT = 10d;
+    private static final int MORNING_END = LocalTime.of(10, 30, 0).toSecondOfDay();
+    private static final int EVENING_START = LocalTime.of(16, 30, 0).toSecondOfDay();
+    private static final Path AFFLUENCE_FILE = Path.of("files/affluence.txt");
+    private static List<String> names = new ArrayList<>();
+    // the default affluence, compiled for each tick duration
+    private static final Map<Integer, AffluenceTable> defaultAffluences = new ConcurrentHashMap<>();
+
+    static {
+        Path nameFile = Path.of("files/first-name.txt");
+        try (Stream<String> lines = Files.lines(nameFile)) {
+            names = lines.collect(Collectors.toList());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private final RandomStreams random;
+    private final AffluenceTable affluence;
+    private final int numberOfFloors;
+    private final int tickDuration;
+
+    public ArrivalGenerator(BuildingConfig config, RandomStreams random) {
+        this(config, random, defaultAffluence(config.getTickDuration()));
+    }
+
+    public ArrivalGenerator(BuildingConfig config, RandomStreams random, AffluenceTable affluence) {
+        this.random = random;
+        this.affluence = affluence;
+        this.numberOfFloors = config.getNumberOfFloors();
+        this.tickDuration = config.getTickDuration();
+    }
+
+    // files/ is read from the working directory
+    private static AffluenceTable defaultAffluence(int tickDuration) {
+        return defaultAffluences.computeIfAbsent(tickDuration,
+                tick -> AffluenceTable.load(AFFLUENCE_FILE, AffluenceTable.Interpolation.STEP, tick));
+    }
+
+    public Arrivals generate(LocalTime startTime, LocalTime endTime) {
+        return generate(SimTime.of(startTime), SimTime.of(endTime));
+    }
+
+    public Arrivals generate(long startTime, long endTime) {
+
+        Arrivals arrivals = new Arrivals();
+        long nextArrivalTime = nextArrivalTimeFrom(startTime, endTime);
+        while (nextArrivalTime >= 0) {
+            int secondOfDay = SimTime.secondOfDay(nextArrivalTime);
+
+            int indexFloor = generateOriginFloor(secondOfDay);
+            int indexDestinationFloor = generateDestinationFloor(secondOfDay, indexFloor);
+            String name = names.get(random.names().nextInt(names.size()));
+            arrivals.add(nextArrivalTime, indexFloor + 1, indexDestinationFloor + 1, name);
+
+            nextArrivalTime = nextArrivalTimeFrom(nextArrivalTime + tickDuration, endTime);
+        }
+        return arrivals;
+    }
+
+    private long nextArrivalTimeFrom(long time, long endTime) {
+
+        // one Bernoulli trial per tick: the number of ticks before the next candidate is geometric,
+        // drawn in one go with the highest probability of the affluence period, and the candidate
+        // is kept with the ratio of its own probability to this highest one
+        long tick = time;
+        while (tick < endTime) {
+            long endOfPeriod = Math.min(affluence.endOfPeriodAt(tick), endTime);
+            long ticksInPeriod = (endOfPeriod - tick + tickDuration - 1) / tickDuration;
+
+            double maxProbability = affluence.maxAffluenceInPeriodAt(tick) / ADJUSTMENT_COEFFICIENT;
+            if (maxProbability > 0d) {
+                long ticksToWait = maxProbability >= 1d ? 0L :
+                        (long) (Math.log(1d - random.arrivalTimes().nextDouble()) / Math.log(1d - maxProbability));
+                if (ticksToWait < ticksInPeriod) {
+                    long candidate = tick + ticksToWait * tickDuration;
+                    double probabilityToAddAPerson = affluence.affluenceAt(candidate) / ADJUSTMENT_COEFFICIENT;
+                    if (probabilityToAddAPerson >= maxProbability ||
+                            random.arrivalTimes().nextDouble() * maxProbability < probabilityToAddAPerson) {
+                        return candidate;
+                    }
+                    tick = candidate + tickDuration;
+                    continue;
+                }
+            }
+            tick += ticksInPeriod * tickDuration;
+        }
+        return -1;
+    }
+
+    private int generateOriginFloor(int secondOfDay) {
+
+        int indexFloor = -1;
+        if (secondOfDay < MORNING_END) {
+            if (random.originFloors().nextFloat() < PROBABLITY_TO_CALL_FROM_1) {
+                indexFloor = 0;
+            } else {
+                indexFloor = random.originFloors().nextInt(numberOfFloors);
+            }
+        } else if (secondOfDay > EVENING_START) {
+            if (random.originFloors().nextFloat() < PROBABLITY_NOT_TO_CALL_FROM_1) {
+                indexFloor = random.originFloors().nextInt(numberOfFloors - 1) + 1;
+            } else {
+                indexFloor = random.originFloors().nextInt(numberOfFloors);
+            }
+        } else {
+            indexFloor = random.originFloors().nextInt(numberOfFloors);
+        }
+        return indexFloor;
+    }
+
+    private int generateDestinationFloor(int secondOfDay, int indexFloor) {
+
+        int indexDestinationFloor = -1;
+        if (secondOfDay > EVENING_START && indexFloor != 1) {
+            if (random.destinationFloors().nextFloat() < PROBABLITY_NOT_TO_CALL_FROM_1) {
+                indexDestinationFloor = 0;
+            } else {
+                indexDestinationFloor = generateDestinationFloorDifferentFrom(indexFloor);
+            }
+        } else {
+            indexDestinationFloor = generateDestinationFloorDifferentFrom(indexFloor);
+        }
+        return indexDestinationFloor;
+    }
+
+    private int generateDestinationFloorDifferentFrom(int floor) {
+        int destinationFloor = random.destinationFloors().nextInt(numberOfFloors);
+        while (destinationFloor == floor) {
+            destinationFloor = random.destinationFloors().nextInt(numberOfFloors);
+        }
+        return destinationFloor;
+    }
+}
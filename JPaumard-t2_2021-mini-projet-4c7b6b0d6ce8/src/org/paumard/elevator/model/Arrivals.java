@@ -0,0 +1,57 @@
+package org.paumard.elevator.model;
+
+import java.util.Arrays;
+
+public class Arrivals {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    // sorted by time, never modified once generated: can be shared by several runs
+    private long[] times = new long[INITIAL_CAPACITY];
+    private int[] originFloors = new int[INITIAL_CAPACITY];
+    private int[] destinationFloors = new int[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int size = 0;
+
+    void add(long time, int originFloor, int destinationFloor, String name) {
+        if (size > 0 && time < times[size - 1]) {
+            throw new IllegalArgumentException("Arrivals must be added in time order");
+        }
+        if (size == times.length) {
+            int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            originFloors = Arrays.copyOf(originFloors, capacity);
+            destinationFloors = Arrays.copyOf(destinationFloors, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+        times[size] = time;
+        originFloors[size] = originFloor;
+        destinationFloors[size] = destinationFloor;
+        names[size] = name;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    public int getOriginFloor(int index) {
+        return originFloors[index];
+    }
+
+    public int getDestinationFloor(int index) {
+        return destinationFloors[index];
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public Person createPerson(int index) {
+        return new Person(times[index], names[index], destinationFloors[index]);
+    }
+}
@@ -1,36 +1,33 @@
 package org.paumard.elevator.model;
 
-import org.paumard.elevator.Building;
+import org.paumard.elevator.system.SimTime;
 
-import java.time.Duration;
 import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.List;
 
 public class Person {
-    private LocalTime arrivalTime;
+    private long arrivalTime;
     private String name;
     private int destinationFloor;
 
-    public Person(LocalTime arrivalTime, String name, int destinationFloor) {
+    public Person(long arrivalTime, String name, int destinationFloor) {
         this.arrivalTime = arrivalTime;
         this.name = name;
         this.destinationFloor = destinationFloor;
     }
 
+    public Person(LocalTime arrivalTime, String name, int destinationFloor) {
+        this(SimTime.of(arrivalTime), name, destinationFloor);
+    }
+
     @Override
     public String toString() {
-        Duration waitingTime = Duration.between(arrivalTime, Building.time);
-        List<String> waitingTimeElements = new ArrayList<>();
-        if (waitingTime.toSeconds() >= 3600) {
-            waitingTimeElements.add(waitingTime.toHoursPart() + "h");
-        }
-        if (waitingTime.toSeconds() >= 60) {
-            waitingTimeElements.add(waitingTime.toMinutesPart() + "mn");
-        }
-        waitingTimeElements.add(waitingTime.toSecondsPart() + "s");
-        String waitingTimeAsString = String.join(" ", waitingTimeElements);
-        return name + " arrived at " + arrivalTime +
+        return name + " arrived at " + SimTime.format(arrivalTime) +
+                " going to " + destinationFloor;
+    }
+
+    public String toString(long time) {
+        String waitingTimeAsString = SimTime.formatDuration(time - arrivalTime);
+        return name + " arrived at " + SimTime.format(arrivalTime) +
                 " [waited for " + waitingTimeAsString + "]" +
                 " going to " + destinationFloor;
     }
@@ -44,6 +41,10 @@ public class Person {
     }
 
     public LocalTime getArrivalTime() {
+        return SimTime.toLocalTime(this.arrivalTime);
+    }
+
+    public long getArrivalSimTime() {
         return this.arrivalTime;
     }
 }
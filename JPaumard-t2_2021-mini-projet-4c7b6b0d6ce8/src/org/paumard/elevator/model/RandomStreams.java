@@ -0,0 +1,53 @@
+package org.paumard.elevator.model;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+public class RandomStreams {
+
+    // one independent stream per kind of draw: changing how many draws one of them makes,
+    // for instance a tie-break between more elevators, does not shift the others
+    private final SplittableRandom master;
+    private final SplittableRandom arrivalTimes;
+    private final SplittableRandom originFloors;
+    private final SplittableRandom destinationFloors;
+    private final SplittableRandom names;
+    private final SplittableRandom tieBreaks;
+
+    public RandomStreams(long masterSeed) {
+        this(new SplittableRandom(masterSeed));
+    }
+
+    private RandomStreams(SplittableRandom master) {
+        this.master = master;
+        this.arrivalTimes = master.split();
+        this.originFloors = master.split();
+        this.destinationFloors = master.split();
+        this.names = master.split();
+        this.tieBreaks = master.split();
+    }
+
+    public RandomStreams split() {
+        return new RandomStreams(master.split());
+    }
+
+    public RandomGenerator arrivalTimes() {
+        return arrivalTimes;
+    }
+
+    public RandomGenerator originFloors() {
+        return originFloors;
+    }
+
+    public RandomGenerator destinationFloors() {
+        return destinationFloors;
+    }
+
+    public RandomGenerator names() {
+        return names;
+    }
+
+    public RandomGenerator tieBreaks() {
+        return tieBreaks;
+    }
+}
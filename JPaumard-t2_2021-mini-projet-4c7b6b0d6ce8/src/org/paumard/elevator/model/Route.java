@@ -0,0 +1,132 @@
+package org.paumard.elevator.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.IntConsumer;
+
+public class Route {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    // the floors in a ring buffer, so that leaving the first floor does not shift the others
+    private int[] floors = new int[INITIAL_CAPACITY];
+    private int head = 0;
+    private int size = 0;
+    // how many times each floor is in the route, bit n of the mask is set when floor n + 1 is
+    private final int[] occurrences = new int[Long.SIZE];
+    private long mask = 0L;
+
+    public Route() {
+    }
+
+    public static Route of(List<Integer> floors) {
+        Route route = new Route();
+        for (int floor : floors) {
+            route.addLast(floor);
+        }
+        return route;
+    }
+
+    public static Route of(int... floors) {
+        Route route = new Route();
+        for (int floor : floors) {
+            route.addLast(floor);
+        }
+        return route;
+    }
+
+    public void addLast(int floor) {
+        if (floor < 1 || floor > Long.SIZE) {
+            throw new IllegalArgumentException("Floor " + floor + " is out of range");
+        }
+        if (size == floors.length) {
+            int[] newFloors = new int[2 * floors.length];
+            for (int i = 0; i < size; i++) {
+                newFloors[i] = get(i);
+            }
+            floors = newFloors;
+            head = 0;
+        }
+        floors[(head + size) & (floors.length - 1)] = floor;
+        size++;
+        if (occurrences[floor - 1]++ == 0) {
+            mask |= 1L << (floor - 1);
+        }
+    }
+
+    public int removeFirst() {
+        int floor = getFirst();
+        head = (head + 1) & (floors.length - 1);
+        size--;
+        if (--occurrences[floor - 1] == 0) {
+            mask &= ~(1L << (floor - 1));
+        }
+        return floor;
+    }
+
+    public int getFirst() {
+        return get(0);
+    }
+
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return floors[(head + index) & (floors.length - 1)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int floor) {
+        return floor >= 1 && floor <= Long.SIZE && (mask & (1L << (floor - 1))) != 0L;
+    }
+
+    public int indexOf(int floor) {
+        if (!contains(floor)) {
+            return -1;
+        }
+        for (int i = 0; i < size; i++) {
+            if (get(i) == floor) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // bit n is set when floor n + 1 is in the route
+    public long getMask() {
+        return mask;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(get(i));
+        }
+    }
+
+    public List<Integer> toList() {
+        List<Integer> list = new ArrayList<>(size);
+        forEach(list::add);
+        return list;
+    }
+
+    public Route copy() {
+        Route copy = new Route();
+        forEach(copy::addLast);
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        forEach(floor -> joiner.add(Integer.toString(floor)));
+        return joiner.toString();
+    }
+}
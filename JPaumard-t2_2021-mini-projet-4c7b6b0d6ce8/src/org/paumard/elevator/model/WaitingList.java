@@ -1,216 +1,329 @@
 package org.paumard.elevator.model;
 
-import org.paumard.elevator.Building;
-import org.paumard.elevator.event.Event;
-
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.time.LocalTime;
-import java.util.*;
-import java.util.function.BinaryOperator;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
-import static org.paumard.elevator.Building.*;
+import org.paumard.elevator.BuildingConfig;
 
 public class WaitingList {
 
-    public static final double PROBABLITY_TO_CALL_FROM_1 = 0.8d;
-    private static final double PROBABLITY_NOT_TO_CALL_FROM_1 = 0.9d;
-    private static final double ADJUSTMENT_COEFFICIENT = 10d;
-    private static List<String> names = new ArrayList<>();
-    private static NavigableMap<LocalTime, Double> affluence;
-    private static BinaryOperator<Double> unused = (d1, d2) -> d1;
-    public static long countPeopleGenerated = 0L;
-    public static long countPeopleRemoved = 0L;
-
-    static {
-        Path nameFile = Path.of("files/first-name.txt");
-        try (Stream<String> lines = Files.lines(nameFile)) {
-            names = lines.collect(Collectors.toList());
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        Path affluenceFile = Path.of("files/affluence.txt");
-        try (Stream<String> lines = Files.lines(affluenceFile)) {
-            affluence = lines
-                    .filter(line -> !line.isBlank())
-                    .filter(line -> !line.startsWith("#"))
-                    .map(Affluence::of)
-                    .collect(Collectors.toMap(Affluence::getTime, Affluence::getAffluence, unused, TreeMap::new));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    public int chooseIndex(int numberOfCandidates) {
+        return random.tieBreaks().nextInt(numberOfCandidates);
     }
 
-    public Event chooseEventFrom(List<Event> possibleEvents) {
-        int index = random.nextInt(possibleEvents.size());
-        return possibleEvents.get(index);
+    private final List<Floor> floors;
+    private final RandomStreams random;
+    private long countPeopleGenerated = 0L;
+    private long countPeopleRemoved = 0L;
+    private int numberOfPeople;
+    // changes each time someone arrives or leaves a floor
+    private long version = 0L;
+    private WaitingListView view;
+    private long upCalls = 0L;
+    private long downCalls = 0L;
+
+    public static WaitingList getInstance(BuildingConfig config, RandomStreams random) {
+        return getInstanceWith(config, List.of(), random);
     }
 
-    private static class Affluence {
-
-        private LocalTime time;
-        private double affluence;
-
-        private Affluence(LocalTime time, double affluence) {
-            this.time = time;
-            this.affluence = affluence;
-        }
-
-        static Affluence of(String line) {
-            String timeAsString = line.substring(0, line.indexOf(';'));
-            LocalTime time = LocalTime.parse(timeAsString);
-            double affluence = Double.parseDouble(line.substring(line.lastIndexOf(';') + 1));
-            return new Affluence(time, affluence);
-        }
-
-        public LocalTime getTime() {
-            return time;
+    public static WaitingList getInstanceWith(BuildingConfig config, List<List<Person>> waitingLists, RandomStreams random) {
+        int numberOfFloors = config.getNumberOfFloors();
+        if (numberOfFloors > Long.SIZE) {
+            throw new IllegalStateException("The destination masks support at most " + Long.SIZE + " floors");
         }
-
-        public double getAffluence() {
-            return affluence;
-        }
-    }
-
-    public static List<List<Person>> peopleWaitingPerFloor;
-
-    public static WaitingList getInstance() {
-        WaitingList waitingList = new WaitingList();
-        peopleWaitingPerFloor = new ArrayList<>();
-        for (int floorIndex = 0; floorIndex < MAX_FLOOR; floorIndex++) {
-            peopleWaitingPerFloor.add(new ArrayList<>());
+        List<Floor> floors = new ArrayList<>();
+        for (int floorIndex = 0; floorIndex < numberOfFloors; floorIndex++) {
+            Floor floor = new Floor(numberOfFloors);
+            if (floorIndex < waitingLists.size()) {
+                waitingLists.get(floorIndex).forEach(floor::add);
+            }
+            floors.add(floor);
         }
-        return waitingList;
+        return new WaitingList(floors, random);
     }
 
-    public static WaitingList getInstanceWith(List<List<Person>> waitingLists) {
-        WaitingList waitingList = new WaitingList();
-        peopleWaitingPerFloor = new ArrayList<>();
-        for (int floorIndex = 0; floorIndex < MAX_FLOOR; floorIndex++) {
-            List<Person> people = new ArrayList<>(waitingLists.get(floorIndex));
-            peopleWaitingPerFloor.add(people);
+    private WaitingList(List<Floor> floors, RandomStreams random) {
+        this.floors = floors;
+        this.random = random;
+        this.numberOfPeople = floors.stream().mapToInt(Floor::size).sum();
+        for (int index = 0; index < floors.size(); index++) {
+            updateHallCalls(index);
         }
-        return waitingList;
-    }
-
-    private WaitingList() {
-
     }
 
-    public void print() {
-        for (int index = 0; index < peopleWaitingPerFloor.size(); index++) {
+    public void print(PrintStream printer, long time) {
+        for (int index = 0; index < floors.size(); index++) {
             int floor = index + 1;
-            PRINTER.println("People waiting on floor " + floor);
-            if (peopleWaitingPerFloor.get(index).isEmpty()) {
-                PRINTER.println("\tNo one");
+            printer.println("People waiting on floor " + floor);
+            if (floors.get(index).isEmpty()) {
+                printer.println("\tNo one");
             } else {
-                peopleWaitingPerFloor.get(index).forEach(p -> PRINTER.println("\t" + p));
+                floors.get(index).people().forEach(p -> printer.println("\t" + p.toString(time)));
             }
         }
     }
 
-    public Optional<Map.Entry<Integer, Person>> addNewPeopleToLists(LocalTime time) {
+    public void addPersonToFloor(int floor, Person person) {
+        int index = floor - 1;
+        countPeopleGenerated++;
+        numberOfPeople++;
+        version++;
+        floors.get(index).add(person);
+        updateHallCalls(index);
+    }
 
-        LocalTime key = affluence.floorKey(time);
-        double probabilityToAddAPerson = affluence.get(key) / ADJUSTMENT_COEFFICIENT;
-        if (random.nextFloat() < probabilityToAddAPerson) {
-            int indexFloor = -1;
-            if (time.isBefore(LocalTime.of(10, 30, 0))) {
-                if (random.nextFloat() < PROBABLITY_TO_CALL_FROM_1) {
-                    indexFloor = 0;
-                } else {
-                    indexFloor = random.nextInt(Building.MAX_FLOOR);
-                }
-            } else if (time.isAfter(LocalTime.of(16, 30, 0))) {
-                if (random.nextFloat() < PROBABLITY_NOT_TO_CALL_FROM_1) {
-                    indexFloor = random.nextInt(Building.MAX_FLOOR - 1) + 1;
-                } else {
-                    indexFloor = random.nextInt(Building.MAX_FLOOR);
-                }
-            } else {
-                indexFloor = random.nextInt(Building.MAX_FLOOR);
-            }
+    public int getNumberOfFloors() {
+        return floors.size();
+    }
 
-            int indexDestinationFloor = -1;
-            if (time.isAfter(LocalTime.of(16, 30, 0)) && indexFloor != 1) {
-                if (random.nextFloat() < PROBABLITY_NOT_TO_CALL_FROM_1) {
-                    indexDestinationFloor = 0;
-                } else {
-                    indexDestinationFloor = generateDestinationFloorDifferentFrom(indexFloor);
-                }
-            } else {
-                indexDestinationFloor = generateDestinationFloorDifferentFrom(indexFloor);
-            }
-            String name = names.get(random.nextInt(names.size()));
-            Person person = new Person(time, name, indexDestinationFloor + 1);
+    public long getCountPeopleGenerated() {
+        return countPeopleGenerated;
+    }
 
-            countPeopleGenerated++;
-            peopleWaitingPerFloor.get(indexFloor).add(person);
+    public long getCountPeopleRemoved() {
+        return countPeopleRemoved;
+    }
 
-            return Optional.of(Map.entry(indexFloor + 1, person));
+    public int countPeople() {
+        return numberOfPeople;
+    }
 
-        } else {
+    public int countPeopleAt(int floor) {
+        return floors.get(floor - 1).size();
+    }
 
-            return Optional.empty();
-        }
+    // someone waiting at this floor is going up
+    public boolean hasUpCallAt(int floor) {
+        return (upCalls & (1L << (floor - 1))) != 0L;
     }
 
-    private int generateDestinationFloorDifferentFrom(int floor) {
-        int destinationFloor = random.nextInt(Building.MAX_FLOOR);
-        while (destinationFloor == floor) {
-            destinationFloor = random.nextInt(Building.MAX_FLOOR);
-        }
-        return destinationFloor;
+    // someone waiting at this floor is going down
+    public boolean hasDownCallAt(int floor) {
+        return (downCalls & (1L << (floor - 1))) != 0L;
     }
 
-    public int countPeople() {
-        return peopleWaitingPerFloor.stream()
-                .mapToInt(List::size)
-                .sum();
+    // bit n is set when someone waiting at floor n + 1 is going up
+    public long getUpCalls() {
+        return upCalls;
+    }
+
+    // bit n is set when someone waiting at floor n + 1 is going down
+    public long getDownCalls() {
+        return downCalls;
     }
 
+    // the returned list cannot be modified, and does not change when people come or go
     public List<Person> getListFor(int floor) {
         int index = floor - 1;
-        return new ArrayList<>(this.peopleWaitingPerFloor.get(index));
+        return this.floors.get(index).snapshot();
     }
 
-    public List<List<Person>> getLists() {
-        List<List<Person>> defensiveCopy =
-                peopleWaitingPerFloor.stream().map(ArrayList::new).collect(Collectors.toList());
-        return defensiveCopy;
+    public long getVersion() {
+        return version;
     }
 
-    public List<Person> getNextLoadablePeople(List<Integer> nextFloors, int fromFloor) {
+    // only the floors that changed since the last view are copied
+    public WaitingListView getView() {
+        if (view == null || view.getVersion() != version) {
+            List<List<Person>> peopleByFloor =
+                    floors.stream().map(Floor::snapshot).collect(Collectors.toList());
+            view = new WaitingListView(version, peopleByFloor);
+        }
+        return view;
+    }
+
+    public List<Person> getNextLoadablePeople(Route nextFloors, int fromFloor) {
 
         int index = fromFloor - 1;
-        List<Person> peopleToLoad = peopleWaitingPerFloor.get(index).stream()
-                .filter(person -> nextFloors.contains(person.getDestinationFloor()))
-                .collect(Collectors.toList());
+        return floors.get(index).peek(nextFloors.getMask());
+    }
+
+    // removes from the floor and returns the first people, in arrival order, going to one of the next floors
+    public List<Person> pollNextLoadablePeople(Route nextFloors, int fromFloor, int maxNumberOfPeople) {
+
+        int index = fromFloor - 1;
+        List<Person> peopleToLoad = floors.get(index).poll(nextFloors.getMask(), maxNumberOfPeople);
+        if (!peopleToLoad.isEmpty()) {
+            countPeopleRemoved += peopleToLoad.size();
+            numberOfPeople -= peopleToLoad.size();
+            version++;
+            updateHallCalls(index);
+        }
 
         return peopleToLoad;
     }
 
-    public boolean hasLoadablePeople(List<Integer> nextFloors, int fromFloor) {
+    public boolean hasLoadablePeople(Route nextFloors, int fromFloor) {
 
         int index = fromFloor - 1;
-        boolean hasLoadablePeople = peopleWaitingPerFloor.get(index).stream()
-                .anyMatch(person -> nextFloors.contains(person.getDestinationFloor()));
+        boolean hasLoadablePeople = (floors.get(index).destinations & nextFloors.getMask()) != 0L;
 
         return hasLoadablePeople;
     }
 
     public void removePersonFromFloor(int currentFloor, List<Person> loadedPeople) {
         int index = currentFloor - 1;
-        countPeopleRemoved += loadedPeople.size();
-        this.peopleWaitingPerFloor.get(index).removeAll(loadedPeople);
+        Floor floor = this.floors.get(index);
+        int removed = 0;
+        for (Person person : loadedPeople) {
+            if (floor.remove(person)) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            countPeopleRemoved += removed;
+            numberOfPeople -= removed;
+            version++;
+            updateHallCalls(index);
+        }
     }
 
     public void removePeopleFromFloor(int currentFloor, Person person) {
         int index = currentFloor - 1;
-        countPeopleRemoved++;
-        this.peopleWaitingPerFloor.get(index).remove(person);
+        if (this.floors.get(index).remove(person)) {
+            countPeopleRemoved++;
+            numberOfPeople--;
+            version++;
+            updateHallCalls(index);
+        }
+    }
+
+    private void updateHallCalls(int index) {
+        long destinations = floors.get(index).destinations;
+        long floorBit = 1L << index;
+        // the destinations above the floor are the bits above its own bit
+        if ((destinations & -(floorBit << 1)) != 0L) {
+            upCalls |= floorBit;
+        } else {
+            upCalls &= ~floorBit;
+        }
+        if ((destinations & (floorBit - 1L)) != 0L) {
+            downCalls |= floorBit;
+        } else {
+            downCalls &= ~floorBit;
+        }
+    }
+
+    // the people waiting on a floor, in one FIFO queue per destination floor;
+    // the arrival order across the queues is kept with a counter
+    private static class Floor {
+
+        private final ArrayDeque<Waiting>[] byDestination;
+        // bit n is set when someone is going to floor n + 1
+        private long destinations = 0L;
+        private long nextOrder = 0L;
+        private int size = 0;
+        // null when the floor changed since the last snapshot
+        private List<Person> snapshot = List.of();
+
+        private Floor(int numberOfFloors) {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            ArrayDeque<Waiting>[] queues = new ArrayDeque[numberOfFloors];
+            byDestination = queues;
+            for (int index = 0; index < numberOfFloors; index++) {
+                byDestination[index] = new ArrayDeque<>();
+            }
+        }
+
+        void add(Person person) {
+            int index = person.getDestinationFloor() - 1;
+            byDestination[index].addLast(new Waiting(nextOrder++, person));
+            destinations |= 1L << index;
+            size++;
+            snapshot = null;
+        }
+
+        boolean remove(Person person) {
+            int index = person.getDestinationFloor() - 1;
+            ArrayDeque<Waiting> queue = byDestination[index];
+            // people leave the floor in arrival order most of the time
+            if (!queue.isEmpty() && queue.peekFirst().person() == person) {
+                queue.pollFirst();
+            } else if (!queue.removeIf(waiting -> waiting.person() == person)) {
+                return false;
+            }
+            size--;
+            snapshot = null;
+            if (queue.isEmpty()) {
+                destinations &= ~(1L << index);
+            }
+            return true;
+        }
+
+        List<Person> poll(long destinationMask, int maxNumberOfPeople) {
+            List<Person> people = new ArrayList<>();
+            long candidates = destinations & destinationMask;
+            while (candidates != 0L && people.size() < maxNumberOfPeople) {
+                int index = firstInQueues(candidates);
+                ArrayDeque<Waiting> queue = byDestination[index];
+                people.add(queue.pollFirst().person());
+                size--;
+                snapshot = null;
+                if (queue.isEmpty()) {
+                    destinations &= ~(1L << index);
+                    candidates &= ~(1L << index);
+                }
+            }
+            return people;
+        }
+
+        List<Person> peek(long destinationMask) {
+            List<Person> people = new ArrayList<>();
+            long candidates = destinations & destinationMask;
+            if (candidates == 0L) {
+                return people;
+            }
+            if (Long.bitCount(candidates) == 1) {
+                byDestination[Long.numberOfTrailingZeros(candidates)].forEach(waiting -> people.add(waiting.person()));
+                return people;
+            }
+            List<Waiting> merged = new ArrayList<>();
+            for (long mask = candidates; mask != 0L; mask &= mask - 1) {
+                merged.addAll(byDestination[Long.numberOfTrailingZeros(mask)]);
+            }
+            merged.sort(Comparator.comparingLong(Waiting::order));
+            merged.forEach(waiting -> people.add(waiting.person()));
+            return people;
+        }
+
+        List<Person> people() {
+            return peek(destinations);
+        }
+
+        List<Person> snapshot() {
+            if (snapshot == null) {
+                snapshot = List.copyOf(people());
+            }
+            return snapshot;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        private int firstInQueues(long candidates) {
+            int first = -1;
+            long firstOrder = Long.MAX_VALUE;
+            for (long mask = candidates; mask != 0L; mask &= mask - 1) {
+                int index = Long.numberOfTrailingZeros(mask);
+                long order = byDestination[index].peekFirst().order();
+                if (order < firstOrder) {
+                    firstOrder = order;
+                    first = index;
+                }
+            }
+            return first;
+        }
+    }
+
+    private record Waiting(long order, Person person) {
     }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package org.paumard.elevator.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class WaitingListView {
+
+    // a view never changes: the floors that did not change between two versions share the same list
+    private final long version;
+    private final List<List<Person>> peopleByFloor;
+    private final int numberOfPeople;
+
+    WaitingListView(long version, List<List<Person>> peopleByFloor) {
+        this.version = version;
+        this.peopleByFloor = List.copyOf(peopleByFloor);
+        this.numberOfPeople = peopleByFloor.stream().mapToInt(List::size).sum();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getNumberOfFloors() {
+        return peopleByFloor.size();
+    }
+
+    public List<Person> getPeopleAt(int floor) {
+        return peopleByFloor.get(floor - 1);
+    }
+
+    public int countPeopleAt(int floor) {
+        return peopleByFloor.get(floor - 1).size();
+    }
+
+    public int countPeople() {
+        return numberOfPeople;
+    }
+
+    public List<List<Person>> getLists() {
+        return peopleByFloor;
+    }
+
+    // for the code that needs lists it can modify
+    public List<List<Person>> copyLists() {
+        List<List<Person>> copy = new ArrayList<>();
+        peopleByFloor.forEach(people -> copy.add(new ArrayList<>(people)));
+        return copy;
+    }
+}
@@ -0,0 +1,224 @@
+package org.paumard.elevator.stats;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// a log-linear histogram of non negative values: the values below 2^SUB_BUCKET_BITS are counted exactly,
+// the others in buckets of 2^(SUB_BUCKET_BITS - 1) sub-buckets per power of two, that is within 1/128 of the value.
+// A histogram is not thread safe, each thread records in its own and the histograms are merged afterwards
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int HALF_SUB_BUCKET_COUNT = 1 << (SUB_BUCKET_BITS - 1);
+    private static final int ENCODING_VERSION = 1;
+
+    // grows with the highest value recorded
+    private long[] counts = new long[1 << SUB_BUCKET_BITS];
+    private long totalCount = 0L;
+    private long sum = 0L;
+    private long min = Long.MAX_VALUE;
+    private long max = 0L;
+
+    public void record(long value) {
+        record(value, 1L);
+    }
+
+    public void record(long value, long count) {
+        if (value < 0L) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        int index = indexOf(value);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Integer.max(index + 1, 2 * counts.length));
+        }
+        counts[index] += count;
+        totalCount += count;
+        sum += value * count;
+        min = Long.min(min, value);
+        max = Long.max(max, value);
+    }
+
+    public void merge(LatencyHistogram other) {
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int index = 0; index < other.counts.length; index++) {
+            counts[index] += other.counts[index];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Long.min(min, other.min);
+        max = Long.max(max, other.max);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public boolean isEmpty() {
+        return totalCount == 0L;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    // exact, 0 if nothing was recorded
+    public long getMin() {
+        return isEmpty() ? 0L : min;
+    }
+
+    // exact, 0 if nothing was recorded
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return isEmpty() ? Double.NaN : (double) sum / totalCount;
+    }
+
+    // the highest value of the bucket holding the percentile, capped by the max; percentile is between 0 and 100
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0d || percentile > 100d) {
+            throw new IllegalArgumentException("Percentile " + percentile + " is out of range");
+        }
+        if (isEmpty()) {
+            return 0L;
+        }
+        // multiplying first keeps the rank exact: 99.9 / 100 * 1000 is a little more than 999
+        long rank = Long.max(1L, (long) Math.ceil(percentile * totalCount / 100d));
+        long count = 0L;
+        for (int index = 0; index < counts.length; index++) {
+            count += counts[index];
+            if (count >= rank) {
+                return Long.min(highestValueAt(index), max);
+            }
+        }
+        return max;
+    }
+
+    public long getP50() {
+        return getValueAtPercentile(50d);
+    }
+
+    public long getP90() {
+        return getValueAtPercentile(90d);
+    }
+
+    public long getP99() {
+        return getValueAtPercentile(99d);
+    }
+
+    public long getP999() {
+        return getValueAtPercentile(99.9d);
+    }
+
+    // a version, the exact stats, then the bucket counts as zigzag varints, a run of empty buckets being written
+    // as a single negative number
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writeVarLong(bytes, ENCODING_VERSION);
+        writeVarLong(bytes, SUB_BUCKET_BITS);
+        writeVarLong(bytes, totalCount);
+        writeVarLong(bytes, sum);
+        writeVarLong(bytes, getMin());
+        writeVarLong(bytes, max);
+        int length = counts.length;
+        while (length > 0 && counts[length - 1] == 0L) {
+            length--;
+        }
+        writeVarLong(bytes, length);
+        for (int index = 0; index < length; ) {
+            if (counts[index] == 0L) {
+                int zeros = 0;
+                while (index < length && counts[index] == 0L) {
+                    zeros++;
+                    index++;
+                }
+                writeVarLong(bytes, zigZag(-zeros));
+            } else {
+                writeVarLong(bytes, zigZag(counts[index]));
+                index++;
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    public static LatencyHistogram decode(byte[] encoded) {
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        try {
+            long version = readVarLong(buffer);
+            long subBucketBits = readVarLong(buffer);
+            if (version != ENCODING_VERSION || subBucketBits != SUB_BUCKET_BITS) {
+                throw new IllegalArgumentException("Unsupported histogram encoding " + version + "/" + subBucketBits);
+            }
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.totalCount = readVarLong(buffer);
+            histogram.sum = readVarLong(buffer);
+            long min = readVarLong(buffer);
+            histogram.min = histogram.totalCount == 0L ? Long.MAX_VALUE : min;
+            histogram.max = readVarLong(buffer);
+            int length = Math.toIntExact(readVarLong(buffer));
+            histogram.counts = new long[Integer.max(length, histogram.counts.length)];
+            for (int index = 0; index < length; ) {
+                long count = unZigZag(readVarLong(buffer));
+                if (count < 0L) {
+                    index += Math.toIntExact(-count);
+                } else {
+                    histogram.counts[index++] = count;
+                }
+            }
+            return histogram;
+        } catch (BufferUnderflowException | ArithmeticException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Corrupted histogram encoding", e);
+        }
+    }
+
+    static int indexOf(long value) {
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        if (highestBit < SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        int shift = highestBit - (SUB_BUCKET_BITS - 1);
+        return shift * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    static long highestValueAt(int index) {
+        if (index < 1 << SUB_BUCKET_BITS) {
+            return index;
+        }
+        int shift = index / HALF_SUB_BUCKET_COUNT - 1;
+        long subBucket = index - (long) shift * HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1L) << shift) - 1L;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream bytes, long value) {
+        while ((value & ~0x7FL) != 0L) {
+            bytes.write((int) ((value & 0x7FL) | 0x80L));
+            value >>>= 7;
+        }
+        bytes.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0L;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -22,6 +22,8 @@ public class DumbElevator implements Elevator {
     private Person newPersonWaitingAtFloor; 
     private Map<Integer, Integer> peopleByFloorS = new HashMap<Integer, Integer>();
     private boolean lastPersonArrived = false;
+    // the sum of the sizes of the lists in peopleByFloor, updated where these lists change
+    private int peopleLeftAtFloors;
 
 
     public DumbElevator(int capacity, String id) {
@@ -61,6 +63,7 @@ public class DumbElevator implements Elevator {
 
 	public void setPeopleByFloor(List<List<Person>> peopleByFloor) {
 		this.peopleByFloor = peopleByFloor;
+		this.peopleLeftAtFloors = peopleByFloor.stream().mapToInt(List::size).sum();
 	}
 
   
@@ -70,10 +73,6 @@ public class DumbElevator implements Elevator {
     public List<Integer> chooseNextFloors() {
 		
 
-    int peopleLeftAtFloors =(int) peopleByFloor.stream()
-    											.map(list -> list.size())
-    											.reduce(0, (a,b)->(a+b));
-    
     if(peopleLeftAtFloors == 0)
 		this.currentFloor = 1;  
 		
@@ -118,6 +117,7 @@ public class DumbElevator implements Elevator {
     	this.setCurrentFloor(floor);
 		this.setNewPersonWaitingAtFloor(person);
 		peopleByFloor.forEach(p ->p.add(person));
+		peopleLeftAtFloors += peopleByFloor.size();
     }
     
     public void setCurrentFloor(int currentFloor) {
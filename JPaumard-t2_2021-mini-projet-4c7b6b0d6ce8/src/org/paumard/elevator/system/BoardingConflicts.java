@@ -0,0 +1,84 @@
+package org.paumard.elevator.system;
+
+import org.paumard.elevator.event.Event;
+import org.paumard.elevator.model.Person;
+import org.paumard.elevator.model.Route;
+import org.paumard.elevator.model.WaitingList;
+
+import java.util.List;
+
+// the boarding step of the engine, public so that it can be benchmarked on its own
+public class BoardingConflicts {
+
+    private BoardingConflicts() {
+    }
+
+    // several elevators try to load people at the same floor: each person, in arrival order,
+    // goes to an elevator with room left, then the one reaching the destination first,
+    // then the least loaded one, then one drawn at random
+    public static void assignPeopleAtFloor(WaitingList waitingList, ShadowElevators shadowElevators,
+                                           int currentFloor, List<Event.LoadingAttempt> concurrentEvents) {
+
+        int numberOfElevators = concurrentEvents.size();
+        int[] roomLeft = new int[numberOfElevators];
+        int[] load = new int[numberOfElevators];
+        for (int elevator = 0; elevator < numberOfElevators; elevator++) {
+            ShadowElevator shadowElevator = shadowElevators.get(concurrentEvents.get(elevator).elevatorIndex());
+            roomLeft[elevator] = shadowElevator.getAvailableRoom();
+            load[elevator] = shadowElevator.getNumberOfPeople();
+        }
+
+        // for each destination, the elevators going there and the position of this floor in their route
+        int numberOfFloors = waitingList.getNumberOfFloors();
+        int[][] candidates = new int[numberOfFloors][];
+        int[][] positions = new int[numberOfFloors][];
+        int[] numberOfCandidates = new int[numberOfFloors];
+        for (int elevator = 0; elevator < numberOfElevators; elevator++) {
+            Route nextFloors = concurrentEvents.get(elevator).nextFloors();
+            for (int position = 0; position < nextFloors.size(); position++) {
+                int index = nextFloors.get(position) - 1;
+                if (candidates[index] == null) {
+                    candidates[index] = new int[numberOfElevators];
+                    positions[index] = new int[numberOfElevators];
+                }
+                int count = numberOfCandidates[index];
+                if (count == 0 || candidates[index][count - 1] != elevator) {
+                    candidates[index][count] = elevator;
+                    positions[index][count] = position;
+                    numberOfCandidates[index]++;
+                }
+            }
+        }
+
+        int[] ties = new int[numberOfElevators];
+        for (Person person : waitingList.getListFor(currentFloor)) {
+            int index = person.getDestinationFloor() - 1;
+            int numberOfTies = 0;
+            int bestPosition = Integer.MAX_VALUE;
+            int bestLoad = Integer.MAX_VALUE;
+            for (int candidate = 0; candidate < numberOfCandidates[index]; candidate++) {
+                int elevator = candidates[index][candidate];
+                if (roomLeft[elevator] <= 0) {
+                    continue;
+                }
+                int position = positions[index][candidate];
+                if (position < bestPosition || (position == bestPosition && load[elevator] < bestLoad)) {
+                    bestPosition = position;
+                    bestLoad = load[elevator];
+                    numberOfTies = 0;
+                }
+                if (position == bestPosition && load[elevator] == bestLoad) {
+                    ties[numberOfTies++] = elevator;
+                }
+            }
+            if (numberOfTies == 0) {
+                continue;
+            }
+            int selected = numberOfTies == 1 ? ties[0] : ties[waitingList.chooseIndex(numberOfTies)];
+            waitingList.removePeopleFromFloor(currentFloor, person);
+            concurrentEvents.get(selected).addPerson(person);
+            roomLeft[selected]--;
+            load[selected]++;
+        }
+    }
+}
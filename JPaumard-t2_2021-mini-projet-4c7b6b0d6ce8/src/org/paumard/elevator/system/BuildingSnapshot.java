@@ -0,0 +1,161 @@
+package org.paumard.elevator.system;
+
+import org.paumard.elevator.model.WaitingListView;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// the building state given to a controller that runs on another thread. While the simulation thread waits for the
+// controller, the state does not change, so it reads through to the live state and nothing is copied.
+// When a call misses its deadline, the simulation thread copies the state under the lock before it goes on, and
+// the late controller reads the copy until attach() is called, once it is done.
+// Every getter of BuildingState is overridden, the live fields of the parent are not set
+class BuildingSnapshot extends BuildingState {
+
+    private final BuildingState live;
+
+    // guarded by this
+    private boolean detached = false;
+    private long simTime;
+    private int numberOfFloors;
+    private long upCalls;
+    private long downCalls;
+    private WaitingListView waitingList;
+    private final String[] elevatorIds;
+    private final int[] floors;
+    private final List<List<Integer>> nextFloors;
+    private final int[] peopleIn;
+    private final long[] carCalls;
+
+    BuildingSnapshot(BuildingState live) {
+        super(null, null, null);
+        this.live = live;
+        int numberOfElevators = live.getNumberOfElevators();
+        this.elevatorIds = new String[numberOfElevators];
+        for (int index = 0; index < numberOfElevators; index++) {
+            elevatorIds[index] = live.getElevatorId(index);
+        }
+        this.floors = new int[numberOfElevators];
+        this.nextFloors = new ArrayList<>(numberOfElevators);
+        for (int index = 0; index < numberOfElevators; index++) {
+            nextFloors.add(List.of());
+        }
+        this.peopleIn = new int[numberOfElevators];
+        this.carCalls = new long[numberOfElevators];
+    }
+
+    // called on the simulation thread when a call misses its deadline, before the live state changes again.
+    // A getter that is reading the live state holds the lock, so it is done before the copy is made
+    synchronized void detach() {
+        simTime = live.getSimTime();
+        numberOfFloors = live.getNumberOfFloors();
+        upCalls = live.getUpCalls();
+        downCalls = live.getDownCalls();
+        // a view never changes
+        waitingList = live.getWaitingList();
+        for (int index = 0; index < elevatorIds.length; index++) {
+            floors[index] = live.getFloorOf(index);
+            nextFloors.set(index, List.copyOf(live.getNextFloorsOf(index)));
+            peopleIn[index] = live.countPeopleIn(index);
+            carCalls[index] = live.getCarCalls(index);
+        }
+        detached = true;
+    }
+
+    // called on the simulation thread, once the late controller is done with the copy
+    synchronized void attach() {
+        detached = false;
+        waitingList = null;
+    }
+
+    @Override
+    public synchronized LocalTime getTime() {
+        return detached ? SimTime.toLocalTime(simTime) : live.getTime();
+    }
+
+    @Override
+    public synchronized long getSimTime() {
+        return detached ? simTime : live.getSimTime();
+    }
+
+    @Override
+    public synchronized int getNumberOfFloors() {
+        return detached ? numberOfFloors : live.getNumberOfFloors();
+    }
+
+    @Override
+    public synchronized int countPeopleWaiting() {
+        return detached ? waitingList.countPeople() : live.countPeopleWaiting();
+    }
+
+    @Override
+    public synchronized int countPeopleWaitingAt(int floor) {
+        return detached ? waitingList.countPeopleAt(floor) : live.countPeopleWaitingAt(floor);
+    }
+
+    @Override
+    public synchronized boolean hasUpCallAt(int floor) {
+        return detached ? (upCalls & (1L << (floor - 1))) != 0L : live.hasUpCallAt(floor);
+    }
+
+    @Override
+    public synchronized boolean hasDownCallAt(int floor) {
+        return detached ? (downCalls & (1L << (floor - 1))) != 0L : live.hasDownCallAt(floor);
+    }
+
+    @Override
+    public synchronized long getUpCalls() {
+        return detached ? upCalls : live.getUpCalls();
+    }
+
+    @Override
+    public synchronized long getDownCalls() {
+        return detached ? downCalls : live.getDownCalls();
+    }
+
+    @Override
+    public synchronized WaitingListView getWaitingList() {
+        return detached ? waitingList : live.getWaitingList();
+    }
+
+    @Override
+    public int getNumberOfElevators() {
+        return elevatorIds.length;
+    }
+
+    @Override
+    public int indexOf(String elevatorId) {
+        for (int index = 0; index < elevatorIds.length; index++) {
+            if (elevatorIds[index].equals(elevatorId)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String getElevatorId(int elevatorIndex) {
+        return elevatorIds[elevatorIndex];
+    }
+
+    @Override
+    public synchronized int getFloorOf(int elevatorIndex) {
+        return detached ? floors[elevatorIndex] : live.getFloorOf(elevatorIndex);
+    }
+
+    @Override
+    public synchronized List<Integer> getNextFloorsOf(int elevatorIndex) {
+        return detached ? nextFloors.get(elevatorIndex) : live.getNextFloorsOf(elevatorIndex);
+    }
+
+    @Override
+    public synchronized int countPeopleIn(int elevatorIndex) {
+        return detached ? peopleIn[elevatorIndex] : live.countPeopleIn(elevatorIndex);
+    }
+
+    @Override
+    public synchronized long getCarCalls(int elevatorIndex) {
+        return detached ? carCalls[elevatorIndex] : live.getCarCalls(elevatorIndex);
+    }
+}
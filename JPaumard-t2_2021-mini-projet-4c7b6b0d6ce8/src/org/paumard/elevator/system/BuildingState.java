@@ -0,0 +1,103 @@
+package org.paumard.elevator.system;
+
+import org.paumard.elevator.model.Route;
+import org.paumard.elevator.model.WaitingList;
+import org.paumard.elevator.model.WaitingListView;
+
+import java.time.LocalTime;
+import java.util.List;
+
+// a read-only handle on the state owned by the engine, shared by all the controllers:
+// reading it does not copy anything, and what it returns is always up to date
+public class BuildingState {
+
+    private final SimulationEngine engine;
+    private final WaitingList waitingList;
+    private final ShadowElevators shadowElevators;
+
+    BuildingState(SimulationEngine engine, WaitingList waitingList, ShadowElevators shadowElevators) {
+        this.engine = engine;
+        this.waitingList = waitingList;
+        this.shadowElevators = shadowElevators;
+    }
+
+    public LocalTime getTime() {
+        return SimTime.toLocalTime(engine.getTime());
+    }
+
+    // in SimTime seconds
+    public long getSimTime() {
+        return engine.getTime();
+    }
+
+    public int getNumberOfFloors() {
+        return engine.getConfig().getNumberOfFloors();
+    }
+
+    public int countPeopleWaiting() {
+        return waitingList.countPeople();
+    }
+
+    public int countPeopleWaitingAt(int floor) {
+        return waitingList.countPeopleAt(floor);
+    }
+
+    public boolean hasUpCallAt(int floor) {
+        return waitingList.hasUpCallAt(floor);
+    }
+
+    public boolean hasDownCallAt(int floor) {
+        return waitingList.hasDownCallAt(floor);
+    }
+
+    // bit n is set when someone waiting at floor n + 1 is going up
+    public long getUpCalls() {
+        return waitingList.getUpCalls();
+    }
+
+    // bit n is set when someone waiting at floor n + 1 is going down
+    public long getDownCalls() {
+        return waitingList.getDownCalls();
+    }
+
+    // the people waiting, floor by floor; the view is only rebuilt for the floors that changed
+    public WaitingListView getWaitingList() {
+        return waitingList.getView();
+    }
+
+    public int getNumberOfElevators() {
+        return shadowElevators.count();
+    }
+
+    public int indexOf(String elevatorId) {
+        for (int index = 0; index < shadowElevators.count(); index++) {
+            if (shadowElevators.get(index).getId().equals(elevatorId)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    public String getElevatorId(int elevatorIndex) {
+        return shadowElevators.get(elevatorIndex).getId();
+    }
+
+    public int getFloorOf(int elevatorIndex) {
+        return shadowElevators.get(elevatorIndex).getCurrentFloor();
+    }
+
+    // the floors the elevator is still going to, the floor it is going to first being the first one
+    public List<Integer> getNextFloorsOf(int elevatorIndex) {
+        Route nextFloors = shadowElevators.get(elevatorIndex).getNextFloors();
+        return nextFloors == null ? List.of() : nextFloors.toList();
+    }
+
+    public int countPeopleIn(int elevatorIndex) {
+        return shadowElevators.get(elevatorIndex).getNumberOfPeople();
+    }
+
+    // bit n is set when someone in the elevator is going to floor n + 1
+    public long getCarCalls(int elevatorIndex) {
+        return shadowElevators.get(elevatorIndex).getDestinationMask();
+    }
+}
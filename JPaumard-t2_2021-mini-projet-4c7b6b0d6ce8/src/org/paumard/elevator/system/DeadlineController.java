@@ -0,0 +1,238 @@
+package org.paumard.elevator.system;
+
+import org.paumard.elevator.ElevatorController;
+import org.paumard.elevator.model.Person;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// calls a controller on its own thread, and stops waiting for it after a deadline. Every callback goes through the
+// same path, so a controller that never returns cannot hang the simulation, whatever it was called for.
+// While the simulation thread waits, the controller reads the live building state; a call that misses the deadline
+// goes on reading a copy taken at that moment, so that it never reads the state the simulation keeps changing.
+// A late call is interrupted: a controller that checks Thread.interrupted() can give up by returning, the others keep
+// running in the background. As long as it runs, the elevator follows the fallback, and the callbacks are queued
+// behind the late call, to be run in order once it is done
+public class DeadlineController implements ElevatorController, AutoCloseable {
+
+    private final int elevatorIndex;
+    private final ElevatorController controller;
+    private final SimulationLog log;
+    private final long deadlineNanos;
+    private final Fallback fallback;
+    private final ExecutorService executor;
+    private volatile Thread worker;
+
+    private BuildingState buildingState;
+    private BuildingSnapshot snapshot;
+    // the call that missed its deadline, followed by the callbacks queued behind it
+    private final Deque<Future<?>> lateCalls = new ArrayDeque<>();
+    // the late call itself was interrupted, what it returns or throws is dropped
+    private Future<?> interruptedCall;
+    private String lateCallback;
+    private long deadlineViolations = 0L;
+    private boolean fallingBack = false;
+
+    // the index is the one the elevator gets when it is added to the engine
+    public DeadlineController(int elevatorIndex, ElevatorController controller, SimulationLog log, Duration deadline, Fallback fallback) {
+        this.elevatorIndex = elevatorIndex;
+        this.controller = controller;
+        this.log = log;
+        this.deadlineNanos = deadline.toNanos();
+        this.fallback = fallback;
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "controller-" + controller.getId());
+            // a controller that never returns must not keep the JVM alive
+            thread.setDaemon(true);
+            this.worker = thread;
+            return thread;
+        });
+    }
+
+    public ElevatorController getController() {
+        return controller;
+    }
+
+    public long getDeadlineViolations() {
+        return deadlineViolations;
+    }
+
+    // the callback that missed its deadline and has not returned yet, null if there is none
+    public String getUnfinishedCallback() {
+        return interruptedCall != null && !interruptedCall.isDone() ? lateCallback : null;
+    }
+
+    @Override
+    public String getId() {
+        return controller.getId();
+    }
+
+    @Override
+    public void init(BuildingState buildingState) {
+        this.buildingState = buildingState;
+        this.snapshot = new BuildingSnapshot(buildingState);
+        run("init", () -> controller.init(snapshot));
+    }
+
+    @Override
+    public void startsAtFloor(LocalTime time, int initialFloor) {
+        run("startsAtFloor", () -> controller.startsAtFloor(time, initialFloor));
+    }
+
+    @Override
+    public boolean isFallingBack() {
+        return fallingBack;
+    }
+
+    @Override
+    public List<Integer> chooseNextFloors() {
+        if (isLate()) {
+            deadlineViolations++;
+            return fallbackFloors();
+        }
+        List<Integer> nextFloors = call("chooseNextFloors", controller::chooseNextFloors);
+        if (nextFloors == null) {
+            return fallbackFloors();
+        }
+        fallingBack = false;
+        return nextFloors;
+    }
+
+    @Override
+    public void arriveAtFloor(int floor) {
+        run("arriveAtFloor", () -> controller.arriveAtFloor(floor));
+    }
+
+    @Override
+    public void onHallCall(int floor, Person person) {
+        run("onHallCall", () -> controller.onHallCall(floor, person));
+    }
+
+    @Override
+    public void onBoarded(int floor, List<Person> people) {
+        run("onBoarded", () -> controller.onBoarded(floor, people));
+    }
+
+    @Override
+    public void onAlighted(int floor, List<Person> people) {
+        run("onAlighted", () -> controller.onAlighted(floor, people));
+    }
+
+    @Override
+    public void lastPersonArrived() {
+        run("lastPersonArrived", controller::lastPersonArrived);
+    }
+
+    @Override
+    public void timeIs(LocalTime time) {
+        run("timeIs", () -> controller.timeIs(time));
+    }
+
+    @Override
+    public void standByAtFloor(int currentFloor) {
+        run("standByAtFloor", () -> controller.standByAtFloor(currentFloor));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // once the late calls are done, the controller reads the live state again.
+    // A callback queued behind the late call that failed fails the run, as it would have if it had been in time
+    private boolean isLate() {
+        while (!lateCalls.isEmpty() && lateCalls.peekFirst().isDone()) {
+            Future<?> lateCall = lateCalls.pollFirst();
+            if (lateCalls.isEmpty()) {
+                snapshot.attach();
+            }
+            if (lateCall == interruptedCall) {
+                interruptedCall = null;
+                continue;
+            }
+            try {
+                lateCall.get();
+            } catch (ExecutionException e) {
+                throw failure("a late callback", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return !lateCalls.isEmpty();
+    }
+
+    private List<Integer> fallbackFloors() {
+        fallingBack = true;
+        int currentFloor = buildingState.getFloorOf(elevatorIndex);
+        if (fallback == Fallback.LAST_ROUTE) {
+            List<Integer> nextFloors = buildingState.getNextFloorsOf(elevatorIndex);
+            if (!nextFloors.isEmpty()) {
+                return nextFloors;
+            }
+        }
+        return List.of(currentFloor);
+    }
+
+    // a callback received while the controller is late is queued behind the late call, on the thread of the controller
+    private void run(String callback, Runnable task) {
+        if (isLate()) {
+            lateCalls.addLast(executor.submit(task));
+        } else {
+            call(callback, Executors.callable(task));
+        }
+    }
+
+    // returns null if the callback missed the deadline
+    private <T> T call(String callback, Callable<T> task) {
+        Future<T> future = executor.submit(() -> {
+            // an interrupt meant for a late call that returned just before it is not for this one
+            Thread.interrupted();
+            return task.call();
+        });
+        try {
+            return future.get(deadlineNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // the state is copied only now, and the controller reads the copy until the late call is done
+            snapshot.detach();
+            deadlineViolations++;
+            lateCalls.addLast(future);
+            interruptedCall = future;
+            lateCallback = callback;
+            Thread thread = worker;
+            if (thread != null) {
+                thread.interrupt();
+            }
+            log.print(Verbosity.EVENTS, buildingState.getSimTime(),
+                    "[%s] Elevator [%s] missed the deadline of %dms in %s, falling back to %s\n",
+                    getId(), TimeUnit.NANOSECONDS.toMillis(deadlineNanos), callback, fallback);
+            return null;
+        } catch (InterruptedException e) {
+            snapshot.detach();
+            lateCalls.addLast(future);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw failure(callback, e);
+        }
+    }
+
+    private RuntimeException failure(String callback, ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        } else if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException("Elevator [" + getId() + "] failed in " + callback, cause);
+    }
+}
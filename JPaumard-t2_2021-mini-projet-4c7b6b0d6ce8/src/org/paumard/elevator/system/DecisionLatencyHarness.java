@@ -0,0 +1,177 @@
+package org.paumard.elevator.system;
+
+import org.paumard.elevator.BuildingConfig;
+import org.paumard.elevator.Elevator;
+import org.paumard.elevator.ElevatorController;
+import org.paumard.elevator.model.ArrivalGenerator;
+import org.paumard.elevator.model.Arrivals;
+import org.paumard.elevator.model.RandomStreams;
+import org.paumard.elevator.stats.LatencyHistogram;
+import org.paumard.elevator.student.DumbElevator;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.paumard.elevator.Building.SEED;
+
+// times the decisions of each elevator implementation over the same simulated days,
+// so that the implementations are compared on the same building states.
+// With a deadline, each implementation is also timed when it runs under a DeadlineController, to show what it costs
+public class DecisionLatencyHarness {
+
+    private final BuildingConfig config;
+    private final Map<String, Supplier<List<Elevator>>> implementations;
+    private final int numberOfDays;
+    private final long masterSeed;
+    private final Duration budget;
+    // null to time the implementations on the simulation thread only
+    private final Duration deadline;
+
+    public DecisionLatencyHarness(BuildingConfig config, Map<String, Supplier<List<Elevator>>> implementations,
+                                  int numberOfDays, long masterSeed, Duration budget) {
+        this(config, implementations, numberOfDays, masterSeed, budget, null);
+    }
+
+    public DecisionLatencyHarness(BuildingConfig config, Map<String, Supplier<List<Elevator>>> implementations,
+                                  int numberOfDays, long masterSeed, Duration budget, Duration deadline) {
+        this.config = config;
+        this.implementations = implementations;
+        this.numberOfDays = numberOfDays;
+        this.masterSeed = masterSeed;
+        this.budget = budget;
+        this.deadline = deadline;
+    }
+
+    public static void main(String[] args) {
+
+        int numberOfDays = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Duration budget = Duration.ofNanos(1_000L * (args.length > 1 ? Long.parseLong(args[1]) : 100L));
+
+        BuildingConfig config = args.length > 2 ? BuildingConfig.load(Path.of(args[2])) : BuildingConfig.getDefault();
+        Duration deadline = args.length > 3 ? Duration.ofMillis(Long.parseLong(args[3])) : null;
+
+        Map<String, Supplier<List<Elevator>>> implementations = new LinkedHashMap<>();
+        implementations.put("DumbElevator", () -> IntStream.rangeClosed(1, config.getNumberOfElevators())
+                .<Elevator>mapToObj(index -> new DumbElevator(config.getElevatorCapacity(), "Dumb " + index))
+                .collect(Collectors.toList()));
+
+        DecisionLatencyHarness harness = new DecisionLatencyHarness(config, implementations, numberOfDays, SEED, budget, deadline);
+        harness.run().forEach(result -> result.print(System.out));
+    }
+
+    public List<Result> run() {
+
+        List<Arrivals> days = new ArrayList<>();
+        SplittableRandom seedGenerator = new SplittableRandom(masterSeed);
+        long[] seeds = new long[numberOfDays];
+        for (int day = 0; day < numberOfDays; day++) {
+            seeds[day] = seedGenerator.nextLong();
+            days.add(new ArrivalGenerator(config, new RandomStreams(seeds[day])).generate(config.getStartTime(), config.getEndTime()));
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (Map.Entry<String, Supplier<List<Elevator>>> implementation : implementations.entrySet()) {
+            results.add(time(implementation.getKey(), implementation.getValue(), null, seeds, days));
+            if (deadline != null) {
+                String name = implementation.getKey() + " under a deadline of " + deadline.toMillis() + "ms";
+                results.add(time(name, implementation.getValue(), deadline, seeds, days));
+            }
+        }
+        return results;
+    }
+
+    private Result time(String name, Supplier<List<Elevator>> implementation, Duration deadline, long[] seeds, List<Arrivals> days) {
+        Result result = new Result(name, budget);
+        for (int day = 0; day < numberOfDays; day++) {
+            SimulationEngine engine = new SimulationEngine(config, seeds[day], SimulationLog.off());
+            engine.setArrivals(days.get(day));
+            List<TimedController> controllers = new ArrayList<>();
+            for (Elevator elevator : implementation.get()) {
+                ElevatorController controller = new ElevatorAdapter(elevator);
+                if (deadline != null) {
+                    controller = new DeadlineController(controllers.size(), controller, SimulationLog.off(), deadline,
+                            Fallback.HOLD_CURRENT_FLOOR);
+                }
+                // the time of a decision made under a deadline includes handing it over to the thread of the controller
+                TimedController timedController = new TimedController(controllers.size(),
+                        controller, SimulationLog.off(), budget, TimedController.BudgetMode.FLAG, true);
+                controllers.add(timedController);
+                engine.addController(timedController);
+            }
+            // the engine closes the deadline controllers
+            long start = System.nanoTime();
+            engine.run();
+            result.addWallTime(System.nanoTime() - start);
+            controllers.forEach(result::add);
+        }
+        return result;
+    }
+
+    public static class Result {
+
+        private final String implementation;
+        private final Duration budget;
+        // in nanoseconds
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private long allocatedBytes = 0L;
+        private boolean allocationsMeasured = true;
+        private long budgetViolations = 0L;
+        private long wallNanos = 0L;
+
+        Result(String implementation, Duration budget) {
+            this.implementation = implementation;
+            this.budget = budget;
+        }
+
+        void add(TimedController controller) {
+            latencies.merge(controller.getLatencies());
+            allocatedBytes += controller.getAllocatedBytes();
+            allocationsMeasured &= controller.isMeasuringAllocations();
+            budgetViolations += controller.getBudgetViolations();
+        }
+
+        void addWallTime(long nanos) {
+            wallNanos += nanos;
+        }
+
+        public String getImplementation() {
+            return implementation;
+        }
+
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+
+        public double getAllocatedBytesPerDecision() {
+            return allocationsMeasured && !latencies.isEmpty() ? (double) allocatedBytes / latencies.getTotalCount() : Double.NaN;
+        }
+
+        public long getBudgetViolations() {
+            return budgetViolations;
+        }
+
+        // the time taken by the simulations, callbacks included
+        public Duration getWallTime() {
+            return Duration.ofNanos(wallNanos);
+        }
+
+        public void print(PrintStream printer) {
+            printer.printf("Elevator %s: %d decisions\n", implementation, latencies.getTotalCount());
+            printer.printf("\tDecision time p50 = %.1fus, p90 = %.1fus, p99 = %.1fus, p99.9 = %.1fus, max = %.1fus\n",
+                    latencies.getP50() / 1_000d, latencies.getP90() / 1_000d, latencies.getP99() / 1_000d,
+                    latencies.getP999() / 1_000d, latencies.getMax() / 1_000d);
+            printer.printf("\tAllocated per decision = %.0f bytes\n", getAllocatedBytesPerDecision());
+            printer.printf("\tDecisions over the budget of %dus = %d\n", budget.toNanos() / 1_000L, budgetViolations);
+            printer.printf("\tSimulation time = %dms\n", wallNanos / 1_000_000L);
+        }
+    }
+}
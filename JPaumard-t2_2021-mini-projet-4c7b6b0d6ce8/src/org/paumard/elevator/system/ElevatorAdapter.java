@@ -0,0 +1,77 @@
+package org.paumard.elevator.system;
+
+import org.paumard.elevator.Elevator;
+import org.paumard.elevator.ElevatorController;
+import org.paumard.elevator.model.Person;
+
+import java.time.LocalTime;
+import java.util.List;
+
+// runs an Elevator written for the first API as an ElevatorController
+public class ElevatorAdapter implements ElevatorController {
+
+    private final Elevator elevator;
+
+    public ElevatorAdapter(Elevator elevator) {
+        this.elevator = elevator;
+    }
+
+    public Elevator getElevator() {
+        return elevator;
+    }
+
+    @Override
+    public String getId() {
+        return elevator.getId();
+    }
+
+    @Override
+    public void init(BuildingState buildingState) {
+        elevator.peopleWaiting(buildingState.getWaitingList());
+    }
+
+    @Override
+    public void startsAtFloor(LocalTime time, int initialFloor) {
+        elevator.startsAtFloor(time, initialFloor);
+    }
+
+    @Override
+    public List<Integer> chooseNextFloors() {
+        return elevator.chooseNextFloors();
+    }
+
+    @Override
+    public void arriveAtFloor(int floor) {
+        elevator.arriveAtFloor(floor);
+    }
+
+    @Override
+    public void onHallCall(int floor, Person person) {
+        elevator.newPersonWaitingAtFloor(floor, person);
+    }
+
+    @Override
+    public void onBoarded(int floor, List<Person> people) {
+        elevator.loadPeople(people);
+    }
+
+    @Override
+    public void onAlighted(int floor, List<Person> people) {
+        elevator.unload(people);
+    }
+
+    @Override
+    public void lastPersonArrived() {
+        elevator.lastPersonArrived();
+    }
+
+    @Override
+    public void timeIs(LocalTime time) {
+        elevator.timeIs(time);
+    }
+
+    @Override
+    public void standByAtFloor(int currentFloor) {
+        elevator.standByAtFloor(currentFloor);
+    }
+}
@@ -0,0 +1,52 @@
+package org.paumard.elevator.system;
+
+// the counters of all the elevators, one array per counter, indexed by elevator
+public class ElevatorStats {
+
+    private final long[] loadedPeople;
+    private final long[] unloadedPeople;
+    private final int[] maxLoads;
+
+    public ElevatorStats(int numberOfElevators) {
+        this.loadedPeople = new long[numberOfElevators];
+        this.unloadedPeople = new long[numberOfElevators];
+        this.maxLoads = new int[numberOfElevators];
+    }
+
+    public void peopleLoaded(int elevatorIndex, int count, int load) {
+        loadedPeople[elevatorIndex] += count;
+        maxLoads[elevatorIndex] = Integer.max(maxLoads[elevatorIndex], load);
+    }
+
+    public void peopleUnloaded(int elevatorIndex, int count) {
+        unloadedPeople[elevatorIndex] += count;
+    }
+
+    public long getCountLoadedPeople(int elevatorIndex) {
+        return loadedPeople[elevatorIndex];
+    }
+
+    public long getCountUnloadedPeople(int elevatorIndex) {
+        return unloadedPeople[elevatorIndex];
+    }
+
+    public int getMaxLoad(int elevatorIndex) {
+        return maxLoads[elevatorIndex];
+    }
+
+    public long getTotalLoadedPeople() {
+        long total = 0L;
+        for (long count : loadedPeople) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long getTotalUnloadedPeople() {
+        long total = 0L;
+        for (long count : unloadedPeople) {
+            total += count;
+        }
+        return total;
+    }
+}
@@ -1,22 +1,21 @@
 package org.paumard.elevator.system;
 
-import org.paumard.elevator.Elevator;
+import org.paumard.elevator.ElevatorController;
 import org.paumard.elevator.model.Person;
-import org.paumard.elevator.model.WaitingList;
 
 import java.time.LocalTime;
 import java.util.List;
 
 public class Elevators {
 
-    private List<Elevator> elevators;
+    private List<ElevatorController> elevators;
 
-    public Elevators(List<Elevator> elevators) {
+    public Elevators(List<ElevatorController> elevators) {
         this.elevators = elevators;
     }
 
-    public void peopleWaiting(WaitingList waitingList) {
-        this.elevators.forEach(elevator -> elevator.peopleWaiting(waitingList.getLists()));
+    public void init(BuildingState buildingState) {
+        this.elevators.forEach(elevator -> elevator.init(buildingState));
     }
 
     public void timeIs(LocalTime time) {
@@ -24,15 +23,19 @@ public class Elevators {
     }
 
     public void lastPersonArrived() {
-        this.elevators.forEach(Elevator::lastPersonArrived);
+        this.elevators.forEach(ElevatorController::lastPersonArrived);
     }
 
-    public List<Elevator> getElevators() {
+    public ElevatorController get(int elevatorIndex) {
+        return this.elevators.get(elevatorIndex);
+    }
+
+    public List<ElevatorController> getElevators() {
         return this.elevators;
     }
 
     public void newPersonWaitingAtFloor(int floor, Person person) {
-        elevators.stream().forEach(elevator -> elevator.newPersonWaitingAtFloor(floor, person));
+        elevators.forEach(elevator -> elevator.onHallCall(floor, person));
     }
 
     public int count() {
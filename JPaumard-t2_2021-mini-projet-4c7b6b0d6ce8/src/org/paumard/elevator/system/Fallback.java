@@ -0,0 +1,11 @@
+package org.paumard.elevator.system;
+
+// what an elevator does when its controller did not choose its next floors in time.
+// A fallback is never a decision to stop: an elevator that stays where it is stands by,
+// and asks its controller again at the next stand by
+public enum Fallback {
+    // stays at the current floor
+    HOLD_CURRENT_FLOOR,
+    // keeps going to the floors left in the last route, or stays if there are none
+    LAST_ROUTE
+}
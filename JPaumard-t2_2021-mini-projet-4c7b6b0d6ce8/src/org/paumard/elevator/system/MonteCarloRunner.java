@@ -0,0 +1,275 @@
+package org.paumard.elevator.system;
+
+import org.paumard.elevator.BuildingConfig;
+import org.paumard.elevator.Elevator;
+import org.paumard.elevator.stats.LatencyHistogram;
+import org.paumard.elevator.student.DumbElevator;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.paumard.elevator.Building.SEED;
+
+public class MonteCarloRunner {
+
+    // 95% two-sided normal quantile
+    private static final double CONFIDENCE_QUANTILE = 1.96d;
+
+    private final BuildingConfig config;
+    private final Supplier<List<Elevator>> elevatorsFactory;
+    private final int numberOfDays;
+    private final long masterSeed;
+    private final int parallelism;
+
+    public MonteCarloRunner(BuildingConfig config, Supplier<List<Elevator>> elevatorsFactory, int numberOfDays, long masterSeed, int parallelism) {
+        this.config = config;
+        this.elevatorsFactory = elevatorsFactory;
+        this.numberOfDays = numberOfDays;
+        this.masterSeed = masterSeed;
+        this.parallelism = parallelism;
+    }
+
+    public static void main(String[] args) {
+
+        int numberOfDays = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        BuildingConfig config = args.length > 2 ? BuildingConfig.load(Path.of(args[2])) : BuildingConfig.getDefault();
+
+        MonteCarloRunner runner = new MonteCarloRunner(
+                config,
+                () -> IntStream.rangeClosed(1, config.getNumberOfElevators())
+                        .<Elevator>mapToObj(index -> new DumbElevator(config.getElevatorCapacity(), "Dumb " + index))
+                        .collect(Collectors.toList()),
+                numberOfDays, SEED, parallelism);
+
+        long start = System.nanoTime();
+        Result result = runner.run();
+        long end = System.nanoTime();
+
+        result.print(System.out);
+        System.out.printf("Simulated %d days on %d threads in %dms\n", numberOfDays, parallelism, (end - start) / 1_000_000L);
+    }
+
+    public Result run() {
+
+        // the seeds only depend on the master seed, and the results are merged in seed order,
+        // so the outcome does not depend on the number of threads
+        long[] seeds = new long[numberOfDays];
+        SplittableRandom seedGenerator = new SplittableRandom(masterSeed);
+        for (int day = 0; day < numberOfDays; day++) {
+            seeds[day] = seedGenerator.nextLong();
+        }
+
+        List<Callable<DayResult>> days = new ArrayList<>();
+        for (long seed : seeds) {
+            days.add(() -> runDay(seed));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<DayResult> dayResults = new ArrayList<>();
+            for (Future<DayResult> future : pool.invokeAll(days)) {
+                dayResults.add(future.get());
+            }
+            return new Result(dayResults);
+        } catch (Exception e) {
+            throw new IllegalStateException("Monte Carlo run failed", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private DayResult runDay(long seed) {
+
+        SimulationEngine engine = new SimulationEngine(config, seed, SimulationLog.off());
+        elevatorsFactory.get().forEach(engine::addElevator);
+        engine.run();
+
+        return new DayResult(
+                seed,
+                engine.getDurations(),
+                engine.getWaitingList().countPeople(),
+                engine.getShadowElevators().countPeopleInElevators());
+    }
+
+    public static class DayResult {
+
+        private final long seed;
+        private final LatencyHistogram durations;
+        private final int peopleLeftAtFloors;
+        private final int peopleLeftInElevators;
+
+        DayResult(long seed, LatencyHistogram durations, int peopleLeftAtFloors, int peopleLeftInElevators) {
+            this.seed = seed;
+            this.durations = durations;
+            this.peopleLeftAtFloors = peopleLeftAtFloors;
+            this.peopleLeftInElevators = peopleLeftInElevators;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public LatencyHistogram getDurations() {
+            return durations;
+        }
+
+        public long getNumberOfPeopleTaken() {
+            return durations.getTotalCount();
+        }
+
+        public double getAverageWaitingSeconds() {
+            return durations.getMean();
+        }
+
+        public double getMaxWaitingSeconds() {
+            return durations.getMax();
+        }
+
+        public double getP99WaitingSeconds() {
+            return durations.getP99();
+        }
+
+        public int getPeopleLeftAtFloors() {
+            return peopleLeftAtFloors;
+        }
+
+        public int getPeopleLeftInElevators() {
+            return peopleLeftInElevators;
+        }
+    }
+
+    public static class Result {
+
+        private final List<DayResult> dayResults;
+        private final LatencyHistogram durations = new LatencyHistogram();
+
+        Result(List<DayResult> dayResults) {
+            this.dayResults = dayResults;
+            for (DayResult dayResult : dayResults) {
+                durations.merge(dayResult.getDurations());
+            }
+        }
+
+        public List<DayResult> getDayResults() {
+            return dayResults;
+        }
+
+        public LatencyHistogram getDurations() {
+            return durations;
+        }
+
+        public Estimate averageWaitingSeconds() {
+            return Estimate.of(dayResults.stream()
+                    .filter(dayResult -> dayResult.getNumberOfPeopleTaken() > 0)
+                    .mapToDouble(DayResult::getAverageWaitingSeconds)
+                    .toArray());
+        }
+
+        public Estimate maxWaitingSeconds() {
+            return Estimate.of(dayResults.stream()
+                    .filter(dayResult -> dayResult.getNumberOfPeopleTaken() > 0)
+                    .mapToDouble(DayResult::getMaxWaitingSeconds)
+                    .toArray());
+        }
+
+        public Estimate p99WaitingSeconds() {
+            return Estimate.of(dayResults.stream()
+                    .filter(dayResult -> dayResult.getNumberOfPeopleTaken() > 0)
+                    .mapToDouble(DayResult::getP99WaitingSeconds)
+                    .toArray());
+        }
+
+        public Estimate peopleLeftAtFloors() {
+            return Estimate.of(dayResults.stream().mapToDouble(DayResult::getPeopleLeftAtFloors).toArray());
+        }
+
+        public Estimate peopleLeftInElevators() {
+            return Estimate.of(dayResults.stream().mapToDouble(DayResult::getPeopleLeftInElevators).toArray());
+        }
+
+        public void print(PrintStream printer) {
+            long numberOfPeople = durations.getTotalCount();
+            printer.println("Number of days = " + dayResults.size());
+            printer.println("Number of people taken = " + numberOfPeople);
+            printer.println("Average waiting time = " + averageWaitingSeconds().toDurationString());
+            printer.println("Max waiting time = " + maxWaitingSeconds().toDurationString());
+            printer.println("p99 waiting time = " + p99WaitingSeconds().toDurationString());
+            // over all the days
+            printer.printf("Waiting time p50 = %s, p90 = %s, p99 = %s, p99.9 = %s, max = %s\n",
+                    SimTime.formatDuration(durations.getP50()), SimTime.formatDuration(durations.getP90()),
+                    SimTime.formatDuration(durations.getP99()), SimTime.formatDuration(durations.getP999()),
+                    SimTime.formatDuration(durations.getMax()));
+            printer.println("People left in floors = " + peopleLeftAtFloors());
+            printer.println("People left in elevators = " + peopleLeftInElevators());
+        }
+    }
+
+    public static class Estimate {
+
+        private final int count;
+        private final double mean;
+        private final double halfWidth;
+
+        private Estimate(int count, double mean, double halfWidth) {
+            this.count = count;
+            this.mean = mean;
+            this.halfWidth = halfWidth;
+        }
+
+        static Estimate of(double[] samples) {
+            int count = samples.length;
+            if (count == 0) {
+                return new Estimate(0, Double.NaN, Double.NaN);
+            }
+            double mean = Arrays.stream(samples).sum() / count;
+            if (count == 1) {
+                return new Estimate(count, mean, Double.NaN);
+            }
+            double squares = Arrays.stream(samples).map(sample -> (sample - mean) * (sample - mean)).sum();
+            double standardDeviation = Math.sqrt(squares / (count - 1));
+            return new Estimate(count, mean, CONFIDENCE_QUANTILE * standardDeviation / Math.sqrt(count));
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getLow() {
+            return mean - halfWidth;
+        }
+
+        public double getHigh() {
+            return mean + halfWidth;
+        }
+
+        String toDurationString() {
+            return String.format("%s [%s, %s]", formatSeconds(mean), formatSeconds(getLow()), formatSeconds(getHigh()));
+        }
+
+        private static String formatSeconds(double seconds) {
+            if (Double.isNaN(seconds)) {
+                return "-";
+            }
+            Duration duration = Duration.ofSeconds(Math.round(seconds));
+            return String.format("%dh %dmn %ds", duration.toHours(), duration.toMinutesPart(), duration.toSecondsPart());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.2f [%.2f, %.2f]", mean, getLow(), getHigh());
+        }
+    }
+}
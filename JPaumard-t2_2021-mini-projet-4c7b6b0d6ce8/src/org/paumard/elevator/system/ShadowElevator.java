@@ -1,74 +1,104 @@
 package org.paumard.elevator.system;
 
-import org.paumard.elevator.Building;
+import org.paumard.elevator.BuildingConfig;
 import org.paumard.elevator.model.Person;
+import org.paumard.elevator.model.Route;
 import org.paumard.elevator.model.WaitingList;
 
-import java.time.Duration;
-import java.time.LocalTime;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
-
-import static org.paumard.elevator.Building.ELEVATOR_LOADING_CAPACITY;
-import static org.paumard.elevator.Building.PRINTER;
 
 public class ShadowElevator {
 
+    private final int index;
     private final int elevatorCapacity;
+    private final int loadingCapacity;
     private int currentFloor = 1;
-    private List<Person> people = new ArrayList<>();
-    private List<Integer> nextFloors;
+    // the riders in one FIFO queue per destination floor, the boarding order is kept with a counter
+    private final ArrayDeque<Rider>[] ridersByDestination;
+    // bit n is set when someone in the elevator is going to floor n + 1
+    private long destinations = 0L;
+    private long nextOrder = 0L;
+    private int numberOfPeople = 0;
+    private Route nextFloors;
     private boolean lastPersonArrived = false;
     private boolean stopped;
-    private long countLoadedPeople = 0L;
-    private long countUnloadedPeople = 0L;
-    private int maxLoad;
     private String elevatorId;
     private WaitingList waitingList;
+    private final ElevatorStats stats;
+    private Runnable onStopping = () -> {};
 
-    public ShadowElevator(int elevatorCapacity, String elevatorId, WaitingList waitingList) {
-        this.elevatorCapacity = elevatorCapacity;
+    public ShadowElevator(int index, BuildingConfig config, String elevatorId, WaitingList waitingList, ElevatorStats stats) {
+        this.index = index;
+        this.elevatorCapacity = config.getElevatorCapacity();
+        this.loadingCapacity = config.getLoadingCapacity();
         this.elevatorId = elevatorId;
         this.waitingList = waitingList;
+        this.stats = stats;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArrayDeque<Rider>[] queues = new ArrayDeque[config.getNumberOfFloors()];
+        this.ridersByDestination = queues;
+        for (int floorIndex = 0; floorIndex < ridersByDestination.length; floorIndex++) {
+            ridersByDestination[floorIndex] = new ArrayDeque<>();
+        }
     }
 
-    public void print(LocalTime time) {
-        Duration totalDuration = Duration.between(Building.START_TIME, time);
-        int s = totalDuration.toSecondsPart();
-        int mn = totalDuration.toMinutesPart();
-        PRINTER.printf("Total duration = %dmn %ds\n", mn, s);
+    public void print(PrintStream printer, long startTime, long time) {
+        long totalDuration = time - startTime;
+        long s = totalDuration % 60;
+        long mn = totalDuration % 3600 / 60;
+        printer.printf("Total duration = %dmn %ds\n", mn, s);
     }
 
     public int getCurrentFloor() {
         return currentFloor;
     }
 
+    // in boarding order
     public List<Person> getPeople() {
-        return new ArrayList<>(people);
+        List<Rider> riders = new ArrayList<>(numberOfPeople);
+        for (ArrayDeque<Rider> queue : ridersByDestination) {
+            riders.addAll(queue);
+        }
+        riders.sort(Comparator.comparingLong(Rider::order));
+        List<Person> people = new ArrayList<>(riders.size());
+        riders.forEach(rider -> people.add(rider.person()));
+        return people;
     }
 
     public int numberOfPeopleInElevator() {
-        return this.people.size();
+        return this.numberOfPeople;
+    }
+
+    public long getDestinationMask() {
+        return this.destinations;
+    }
+
+    public boolean hasSomeoneGoingTo(int floor) {
+        return (this.destinations & (1L << (floor - 1))) != 0L;
     }
 
     public List<Person> getNextPeopleToUnload(int currentFloor) {
-        List<Person> peopleToUnload =
-                people.stream()
-                        .filter(p -> p.getDestinationFloor() == currentFloor)
-                        .collect(Collectors.toList());
-        if (peopleToUnload.size() > ELEVATOR_LOADING_CAPACITY) {
-            peopleToUnload = peopleToUnload.subList(0, ELEVATOR_LOADING_CAPACITY);
+        ArrayDeque<Rider> queue = ridersByDestination[currentFloor - 1];
+        int count = Integer.min(queue.size(), loadingCapacity);
+        List<Person> peopleToUnload = new ArrayList<>(count);
+        Iterator<Rider> riders = queue.iterator();
+        for (int i = 0; i < count; i++) {
+            peopleToUnload.add(riders.next().person());
         }
         return peopleToUnload;
     }
 
-    public void printPeople() {
-        if (people.isEmpty()) {
-            PRINTER.printf("Elevator [%s] stopped at floor %d No one left in the elevator\n", this.elevatorId, this.currentFloor);
+    public void printPeople(PrintStream printer, long time) {
+        if (numberOfPeople == 0) {
+            printer.printf("Elevator [%s] stopped at floor %d No one left in the elevator\n", this.elevatorId, this.currentFloor);
         } else {
-            PRINTER.printf("Elevator [%s] stopped at floor %d\n", this.elevatorId, this.currentFloor);
-            people.forEach(p -> PRINTER.println("\t" + p));
+            printer.printf("Elevator [%s] stopped at floor %d\n", this.elevatorId, this.currentFloor);
+            getPeople().forEach(p -> printer.println("\t" + p.toString(time)));
         }
     }
 
@@ -78,44 +108,58 @@ public class ShadowElevator {
 
     public void moveTo(int nextFloor) {
         this.currentFloor = nextFloor;
-        this.nextFloors.remove(0);
+        this.nextFloors.removeFirst();
     }
 
-    public void setNextFloors(List<Integer> nextFloors) {
-        this.nextFloors = new ArrayList<>(nextFloors);
+    // the shadow elevator owns the route from now on
+    public void setNextFloors(Route nextFloors) {
+        this.nextFloors = nextFloors;
     }
 
-    public List<Integer> getNextFloors() {
-        return new ArrayList<>(nextFloors);
+    // not a copy, the route changes when the elevator moves
+    public Route getNextFloors() {
+        return nextFloors;
     }
 
     public void loadPeople(List<Person> people) {
-        countLoadedPeople += people.size();
-        this.people.addAll(people);
-        maxLoad = Integer.max(maxLoad, this.people.size());
+        for (Person person : people) {
+            int destinationIndex = person.getDestinationFloor() - 1;
+            ridersByDestination[destinationIndex].addLast(new Rider(nextOrder++, person));
+            destinations |= 1L << destinationIndex;
+        }
+        numberOfPeople += people.size();
+        stats.peopleLoaded(index, people.size(), numberOfPeople);
     }
 
     public void unload(List<Person> people) {
-        countUnloadedPeople += people.size();
-        this.people.removeAll(people);
+        stats.peopleUnloaded(index, people.size());
+        for (Person person : people) {
+            int destinationIndex = person.getDestinationFloor() - 1;
+            ArrayDeque<Rider> queue = ridersByDestination[destinationIndex];
+            // people get off in boarding order, so they are at the head of their queue
+            if (!queue.isEmpty() && queue.peekFirst().person() == person) {
+                queue.pollFirst();
+            } else if (!queue.removeIf(rider -> rider.person() == person)) {
+                continue;
+            }
+            numberOfPeople--;
+            if (queue.isEmpty()) {
+                destinations &= ~(1L << destinationIndex);
+            }
+        }
     }
 
-    public List<Person> getNextPeopleToLoad(List<Integer> nextFloors, int currentFloor) {
-        if (this.people.size() < this.elevatorCapacity) {
-            List<Person> nextLoadablePeople = waitingList.getNextLoadablePeople(nextFloors, currentFloor);
-            int availableRoom = this.elevatorCapacity - this.people.size();
-            if (nextLoadablePeople.size() > availableRoom) {
-                nextLoadablePeople = nextLoadablePeople.subList(0, availableRoom);
-            }
-            waitingList.removePersonFromFloor(currentFloor, nextLoadablePeople);
-            return nextLoadablePeople;
+    public List<Person> getNextPeopleToLoad(Route nextFloors, int currentFloor) {
+        if (this.numberOfPeople < this.elevatorCapacity) {
+            int availableRoom = this.elevatorCapacity - this.numberOfPeople;
+            return waitingList.pollNextLoadablePeople(nextFloors, currentFloor, availableRoom);
         } else {
             return List.of();
         }
     }
 
-    public boolean hasNextPeopleToLoad(List<Integer> nextFloors, int currentFloor) {
-        if (this.people.size() < this.elevatorCapacity) {
+    public boolean hasNextPeopleToLoad(Route nextFloors, int currentFloor) {
+        if (this.numberOfPeople < this.elevatorCapacity) {
             boolean hasLoadablePeople = waitingList.hasLoadablePeople(nextFloors, currentFloor);
             return hasLoadablePeople;
         } else {
@@ -124,7 +168,7 @@ public class ShadowElevator {
     }
 
     public boolean isAnyoneWaitingAtCurrentFloor() {
-        return !this.waitingList.getListFor(this.currentFloor).isEmpty();
+        return this.waitingList.countPeopleAt(this.currentFloor) > 0;
     }
 
     public void lastPersonArrived() {
@@ -136,11 +180,18 @@ public class ShadowElevator {
     }
 
     public List<Person> getPeopleWaitingAtCurrentFloor() {
-        return new ArrayList<>(this.waitingList.getListFor(this.currentFloor));
+        return this.waitingList.getListFor(this.currentFloor);
     }
 
     public void stopping() {
-        this.stopped = true;
+        if (!this.stopped) {
+            this.stopped = true;
+            this.onStopping.run();
+        }
+    }
+
+    void onStopping(Runnable onStopping) {
+        this.onStopping = onStopping;
     }
 
     public boolean isStopped() {
@@ -152,15 +203,19 @@ public class ShadowElevator {
     }
 
     public long getCountLoadedPeople() {
-        return countLoadedPeople;
+        return stats.getCountLoadedPeople(index);
     }
 
     public long getCountUnloadedPeople() {
-        return countUnloadedPeople;
+        return stats.getCountUnloadedPeople(index);
     }
 
     public int getMaxLoad() {
-        return this.maxLoad;
+        return stats.getMaxLoad(index);
+    }
+
+    public int getIndex() {
+        return this.index;
     }
 
     public String getId() {
@@ -168,10 +223,17 @@ public class ShadowElevator {
     }
 
     public int getNumberOfPeople() {
-        return this.people.size();
+        return this.numberOfPeople;
+    }
+
+    public int getAvailableRoom() {
+        return this.elevatorCapacity - this.numberOfPeople;
     }
 
     public boolean availableRoom() {
-        return this.people.size() < Building.ELEVATOR_CAPACITY;
+        return this.numberOfPeople < this.elevatorCapacity;
+    }
+
+    private record Rider(long order, Person person) {
     }
 }
@@ -1,56 +1,84 @@
 package org.paumard.elevator.system;
 
-import org.paumard.elevator.Building;
-import org.paumard.elevator.Elevator;
+import org.paumard.elevator.BuildingConfig;
+import org.paumard.elevator.model.WaitingList;
 
-import java.util.Map;
+import java.io.PrintStream;
 
+// the shadow elevators are indexed in the order the elevators were added to the engine
 public class ShadowElevators {
 
-    private Map<String, ShadowElevator> shadowElevators;
+    private final ShadowElevator[] shadowElevators;
+    private final ElevatorStats stats;
+    private int runningElevators;
 
-    public ShadowElevators(Map<String, ShadowElevator> shadowElevators) {
-        this.shadowElevators = shadowElevators;
+    public ShadowElevators(Elevators elevators, BuildingConfig config, WaitingList waitingList) {
+        this.shadowElevators = new ShadowElevator[elevators.count()];
+        this.stats = new ElevatorStats(elevators.count());
+        for (int index = 0; index < shadowElevators.length; index++) {
+            ShadowElevator shadowElevator =
+                    new ShadowElevator(index, config, elevators.getElevatorId(index), waitingList, stats);
+            if (shadowElevator.isRunning()) {
+                runningElevators++;
+            }
+            shadowElevator.onStopping(() -> runningElevators--);
+            shadowElevators[index] = shadowElevator;
+        }
     }
 
     public boolean areStillRunning() {
-        return shadowElevators.values().stream()
-                .anyMatch(ShadowElevator::isRunning);
+        return runningElevators > 0;
+    }
+
+    public int countRunningElevators() {
+        return runningElevators;
     }
 
     public void lastPersonArrived() {
-        shadowElevators.values().forEach(ShadowElevator::lastPersonArrived);
+        for (ShadowElevator shadowElevator : shadowElevators) {
+            shadowElevator.lastPersonArrived();
+        }
+    }
+
+    public ShadowElevator get(int elevatorIndex) {
+        return shadowElevators[elevatorIndex];
     }
 
-    public ShadowElevator getShadowElevatorFor(Elevator elevator) {
-        return shadowElevators.get(elevator.getId());
+    public int count() {
+        return shadowElevators.length;
     }
 
-    public void printPeople() {
-        shadowElevators.values().forEach(ShadowElevator::printPeople);
+    public ElevatorStats getStats() {
+        return stats;
     }
 
-    public void printCounts() {
-        long totalLoadedCount = 0L;
-        long totalUnloadedCount = 0L;
-        for (ShadowElevator shadowElevator : shadowElevators.values()) {
-            long loaded = shadowElevator.getCountLoadedPeople();
-            totalLoadedCount += loaded;
-            long unloaded = shadowElevator.getCountUnloadedPeople();
-            totalUnloadedCount += unloaded;
-            Building.PRINTER.printf("\tElevator [%s] people loaded: %d\n", shadowElevator.getId(), loaded);
-            Building.PRINTER.printf("\tElevator [%s] people unloaded: %d\n", shadowElevator.getId(), unloaded);
+    public int countPeopleInElevators() {
+        int count = 0;
+        for (ShadowElevator shadowElevator : shadowElevators) {
+            count += shadowElevator.numberOfPeopleInElevator();
         }
-        Building.PRINTER.printf("Total people loaded: %d\n", totalLoadedCount);
-        Building.PRINTER.printf("Total people unloaded: %d\n", totalUnloadedCount);
+        return count;
     }
 
-    public void printMaxes() {
-        for (ShadowElevator shadowElevator : shadowElevators.values()) {
-            Building.PRINTER.printf("\tElevator [%s] max people loaded: %d\n", shadowElevator.getId(), shadowElevator.getMaxLoad());
-            if (Building.PRINTER != System.out) {
-                System.out.printf("\tElevator [%s] max people loaded: %d\n", shadowElevator.getId(), shadowElevator.getMaxLoad());
-            }
+    public void printPeople(PrintStream printer, long time) {
+        for (ShadowElevator shadowElevator : shadowElevators) {
+            shadowElevator.printPeople(printer, time);
+        }
+    }
+
+    public void printCounts(PrintStream printer) {
+        for (int index = 0; index < shadowElevators.length; index++) {
+            String elevatorId = shadowElevators[index].getId();
+            printer.printf("\tElevator [%s] people loaded: %d\n", elevatorId, stats.getCountLoadedPeople(index));
+            printer.printf("\tElevator [%s] people unloaded: %d\n", elevatorId, stats.getCountUnloadedPeople(index));
+        }
+        printer.printf("Total people loaded: %d\n", stats.getTotalLoadedPeople());
+        printer.printf("Total people unloaded: %d\n", stats.getTotalUnloadedPeople());
+    }
+
+    public void printMaxes(PrintStream printer) {
+        for (int index = 0; index < shadowElevators.length; index++) {
+            printer.printf("\tElevator [%s] max people loaded: %d\n", shadowElevators[index].getId(), stats.getMaxLoad(index));
         }
     }
 }
@@ -0,0 +1,50 @@
+package org.paumard.elevator.system;
+
+import java.time.LocalTime;
+
+public final class SimTime {
+
+    // the simulation clock is a number of seconds since the midnight of the first day,
+    // converted to LocalTime only to talk to the elevators and to print
+    public static final long SECONDS_PER_DAY = 24L * 60L * 60L;
+
+    private SimTime() {
+    }
+
+    public static long of(LocalTime time) {
+        return time.toSecondOfDay();
+    }
+
+    public static long of(int day, LocalTime time) {
+        return day * SECONDS_PER_DAY + time.toSecondOfDay();
+    }
+
+    public static int dayOf(long time) {
+        return (int) Math.floorDiv(time, SECONDS_PER_DAY);
+    }
+
+    public static int secondOfDay(long time) {
+        return (int) Math.floorMod(time, SECONDS_PER_DAY);
+    }
+
+    public static LocalTime toLocalTime(long time) {
+        return LocalTime.ofSecondOfDay(secondOfDay(time));
+    }
+
+    public static String format(long time) {
+        int day = dayOf(time);
+        String timeOfDay = toLocalTime(time).toString();
+        return day == 0 ? timeOfDay : "D+" + day + " " + timeOfDay;
+    }
+
+    public static String formatDuration(long seconds) {
+        StringBuilder builder = new StringBuilder();
+        if (seconds >= 3600) {
+            builder.append(seconds / 3600).append("h ");
+        }
+        if (seconds >= 60) {
+            builder.append((seconds % 3600) / 60).append("mn ");
+        }
+        return builder.append(seconds % 60).append('s').toString();
+    }
+}
@@ -0,0 +1,455 @@
+package org.paumard.elevator.system;
+
+import org.paumard.elevator.BuildingConfig;
+import org.paumard.elevator.Elevator;
+import org.paumard.elevator.ElevatorController;
+import org.paumard.elevator.event.Event;
+import org.paumard.elevator.event.EventQueue;
+import org.paumard.elevator.model.ArrivalGenerator;
+import org.paumard.elevator.model.Arrivals;
+import org.paumard.elevator.model.Person;
+import org.paumard.elevator.model.RandomStreams;
+import org.paumard.elevator.model.Route;
+import org.paumard.elevator.model.WaitingList;
+import org.paumard.elevator.stats.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class SimulationEngine {
+
+    public static final long NO_END_TIME = -1L;
+    // in seconds, each line of the duration histogram counts the durations above its limit and up to the next one,
+    // the first one also counts the shorter ones
+    private static final long[] DURATION_LIMITS = {30L, 180L, 360L, 15 * 60L, 30 * 60L, 60 * 60L};
+
+    private final BuildingConfig config;
+    // all times are SimTime seconds
+    private final long startTime;
+    private final long endTime;
+    private final long endOfDay;
+    private final RandomStreams random;
+    private final SimulationLog log;
+
+    private final List<ElevatorController> elevatorList = new ArrayList<>();
+    // indexed like the elevators
+    private int[] startingFloors = new int[0];
+    private final EventQueue events = new EventQueue();
+    // the travel durations of the people taken, in seconds
+    private final LatencyHistogram durations = new LatencyHistogram();
+    // the lines of the duration histogram are counted exactly, since a bucket of the histogram may straddle a limit
+    private final long[] durationCountsByLimit = new long[DURATION_LIMITS.length];
+
+    private WaitingList waitingList;
+    private Arrivals arrivals;
+    private int nextArrivalIndex;
+    private Elevators elevators;
+    private ShadowElevators shadowElevators;
+    private BuildingState buildingState;
+    private long time;
+    private int totalNumberOfPeople;
+
+    // 0 means no snapshot
+    private long snapshotInterval = 0L;
+    private long nextSnapshotTime;
+
+    // null when the decisions of the controllers are not timed
+    private Duration decisionBudget;
+    private TimedController.BudgetMode budgetMode;
+    // null when the controllers are called on the simulation thread
+    private Duration controllerDeadline;
+    private Fallback fallback;
+    private final List<String> unfinishedCalls = new ArrayList<>();
+
+    // runs the day of the config
+    public SimulationEngine(BuildingConfig config, long seed, SimulationLog log) {
+        this(config, config.getStartTime(), config.getEndTime(), config.getEndOfDay(), seed, log);
+    }
+
+    // endTime is the time the last person may arrive, null if no one arrives during the run
+    public SimulationEngine(BuildingConfig config, LocalTime startTime, LocalTime endTime, LocalTime endOfDay, long seed, SimulationLog log) {
+        this(config, SimTime.of(startTime), endTime == null ? NO_END_TIME : SimTime.of(endTime), SimTime.of(endOfDay), seed, log);
+    }
+
+    public SimulationEngine(BuildingConfig config, long startTime, long endTime, long endOfDay, long seed, SimulationLog log) {
+        this.config = config;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.endOfDay = endOfDay;
+        this.random = new RandomStreams(seed);
+        this.log = log;
+        this.waitingList = WaitingList.getInstance(config, random);
+        this.time = startTime;
+    }
+
+    public void addElevator(Elevator elevator) {
+        addElevator(elevator, 1);
+    }
+
+    public void addElevator(Elevator elevator, int startingFloor) {
+        addController(new ElevatorAdapter(elevator), startingFloor);
+    }
+
+    public void addController(ElevatorController controller) {
+        addController(controller, 1);
+    }
+
+    public void addController(ElevatorController controller, int startingFloor) {
+        if (startingFloor < 1 || startingFloor > config.getNumberOfFloors()) {
+            throw new IllegalArgumentException("No floor " + startingFloor + " in a building of " + config.getNumberOfFloors() + " floors");
+        }
+        int elevatorIndex = this.elevatorList.size();
+        this.elevatorList.add(controller);
+        this.startingFloors = Arrays.copyOf(this.startingFloors, elevatorIndex + 1);
+        this.startingFloors[elevatorIndex] = startingFloor;
+    }
+
+    public void setWaitingLists(List<List<Person>> waitingLists) {
+        this.waitingList = WaitingList.getInstanceWith(config, waitingLists, random);
+    }
+
+    // the same arrivals can be given to several engines to compare elevators on the same day
+    public void setArrivals(Arrivals arrivals) {
+        this.arrivals = arrivals;
+    }
+
+    // prints the whole waiting list and the content of the elevators every snapshotInterval
+    public void setSnapshotInterval(Duration snapshotInterval) {
+        this.snapshotInterval = snapshotInterval.getSeconds();
+    }
+
+    // a controller taking longer than the budget to choose its next floors is flagged in the log,
+    // or falls back to staying where it is
+    public void setDecisionBudget(Duration decisionBudget, TimedController.BudgetMode budgetMode) {
+        this.decisionBudget = decisionBudget;
+        this.budgetMode = budgetMode;
+    }
+
+    // each controller is called on its own thread, and the elevator follows the fallback
+    // when the controller misses the deadline, so that a controller that hangs does not hang the simulation
+    public void setControllerDeadline(Duration controllerDeadline, Fallback fallback) {
+        this.controllerDeadline = controllerDeadline;
+        this.fallback = fallback;
+    }
+
+    public void run() {
+
+        if (arrivals == null) {
+            arrivals = endTime == NO_END_TIME ? new Arrivals() : new ArrivalGenerator(config, random).generate(startTime, endTime);
+        }
+        nextArrivalIndex = 0;
+
+        totalNumberOfPeople = waitingList.countPeople();
+
+        List<ElevatorController> controllers = new ArrayList<>();
+        for (int elevatorIndex = 0; elevatorIndex < elevatorList.size(); elevatorIndex++) {
+            ElevatorController controller = elevatorList.get(elevatorIndex);
+            if (controllerDeadline != null) {
+                controller = new DeadlineController(elevatorIndex, controller, log, controllerDeadline, fallback);
+            }
+            if (decisionBudget != null) {
+                controller = new TimedController(elevatorIndex, controller, log, decisionBudget, budgetMode, false);
+            }
+            controllers.add(controller);
+        }
+        elevators = new Elevators(controllers);
+
+        // the threads of the controllers are released even if a controller fails
+        try {
+            List<Event> startEvents = Event.createStartEventFor(elevators);
+            for (Event startEvent : startEvents) {
+                events.add(time, startEvent);
+            }
+
+            shadowElevators = new ShadowElevators(elevators, config, waitingList);
+
+            buildingState = new BuildingState(this, waitingList, shadowElevators);
+            elevators.init(buildingState);
+
+            log.dump(Verbosity.EVENTS, printer -> waitingList.print(printer, time));
+            nextSnapshotTime = time + snapshotInterval;
+
+            while (shadowElevators.areStillRunning() && time < endOfDay) {
+
+                // nothing changes between two iterations, so the snapshots due before now show the current state
+                while (snapshotInterval > 0L && log.isEnabled(Verbosity.EVENTS) && nextSnapshotTime <= time) {
+                    printSnapshot(nextSnapshotTime);
+                    nextSnapshotTime += snapshotInterval;
+                }
+
+                elevators.timeIs(SimTime.toLocalTime(time));
+
+                if (time == endTime) {
+                    log.print(Verbosity.EVENTS, time, "\n[%s]No more people are coming.\n");
+                    shadowElevators.lastPersonArrived();
+                    elevators.lastPersonArrived();
+                }
+
+                while (nextArrivalIndex < arrivals.size() && arrivals.getTime(nextArrivalIndex) <= time) {
+                    totalNumberOfPeople += addNewPersonToWaitingLists(nextArrivalIndex++);
+                }
+
+                if (events.isEmpty() || events.peekTime() != time) {
+                    time = nextTimeFrom();
+                    continue;
+                }
+
+                List<Event> nextEvents = new ArrayList<>();
+                events.pollAllAt(time, nextEvents);
+
+                List<Event.LoadingAttempt> loadingEvents = new ArrayList<>();
+
+                for (Event nextEvent : nextEvents) {
+
+                    int elevatorIndex = nextEvent.elevatorIndex();
+                    ElevatorController elevator = elevators.get(elevatorIndex);
+                    ShadowElevator shadowElevator = shadowElevators.get(elevatorIndex);
+
+                    Event event = switch (nextEvent.kind()) {
+                        // charge
+                        case ELEVATOR_STARTS -> Event.fromElevatorStartAtFloor(this, elevator, shadowElevator, startingFloors[elevatorIndex]);
+                        // charge
+                        case DOOR_OPENING -> Event.fromDoorOpening(this, elevator, shadowElevator);
+                        // charge
+                        case LOADING_FIRST_PERSON -> Event.fromLoadingFirstPerson(this, shadowElevator, elevator, (Event.LoadingFirstPerson) nextEvent);
+                        // charge
+                        case LOADING_NEXT_PERSON -> Event.fromLoadingNextPerson(this, shadowElevator, elevator, (Event.LoadingNextPerson) nextEvent);
+                        case ARRIVES_AT_FLOOR -> Event.fromArrivesAtFloor(this, elevator, shadowElevator);
+                        // charge
+                        case UNLOADING_FIRST_PERSON -> Event.fromUnloadingFirstPerson(this, shadowElevator, elevator, (Event.UnloadingFirstPerson) nextEvent);
+                        // charge
+                        case UNLOADING_NEXT_PERSON -> Event.fromUnloadingNextPerson(this, shadowElevator, elevator, (Event.UnloadingNextPerson) nextEvent);
+                        case DOOR_CLOSING -> Event.fromDoorClosing(this, elevator, shadowElevator);
+                        case STAND_BY_AT_FLOOR -> Event.fromStandByAtFloor(this, elevator, shadowElevator);
+                        case STOPPING_AT_FLOOR -> {
+                            shadowElevator.stopping();
+                            yield null;
+                        }
+                        // loading attempts are resolved below, they are never scheduled
+                        case FIRST_LOADING_ATTEMPT, NEXT_LOADING_ATTEMPT -> null;
+                    };
+
+                    if (event != null) {
+                        if (!event.kind().isLoadingAttempt()) {
+
+                            events.add(event.getTimeOfArrivalFrom(time, config), event);
+
+                        } else {
+
+                            loadingEvents.add((Event.LoadingAttempt) event);
+                        }
+                    }
+                }
+
+                if (!loadingEvents.isEmpty()) {
+
+                    Map<Integer, List<Event.LoadingAttempt>> loadingEventsByCurrentFloor =
+                            loadingEvents.stream()
+                                    .collect(Collectors.groupingBy(Event.LoadingAttempt::currentFloor));
+
+                    for (Map.Entry<Integer, List<Event.LoadingAttempt>> concurrentEventsByFloor : loadingEventsByCurrentFloor.entrySet()) {
+
+                        int currentFloor = concurrentEventsByFloor.getKey();
+                        List<Event.LoadingAttempt> concurrentEvents = concurrentEventsByFloor.getValue();
+                        if (concurrentEvents.size() == 1) {
+
+                            Event.LoadingAttempt nextEvent = concurrentEvents.get(0);
+                            ShadowElevator shadowElevator = shadowElevators.get(nextEvent.elevatorIndex());
+
+                            Route nextFloors = nextEvent.nextFloors();
+                            List<Person> nextPeopleToLoad = shadowElevator.getNextPeopleToLoad(nextFloors, currentFloor);
+                            Event event = nextEvent.toLoadingEvent(nextPeopleToLoad);
+
+                            events.add(event.getTimeOfArrivalFrom(time, config), event);
+
+                        } else {
+
+                            BoardingConflicts.assignPeopleAtFloor(waitingList, shadowElevators, currentFloor, concurrentEvents);
+
+                            for (Event.LoadingAttempt nextEvent : concurrentEvents) {
+
+                                Event event = nextEvent.toLoadingEvent(nextEvent.peopleToLoad());
+
+                                events.add(event.getTimeOfArrivalFrom(time, config), event);
+                            }
+                        }
+                    }
+                }
+
+                time = nextTimeFrom();
+            }
+        } finally {
+            for (ElevatorController controller : controllers) {
+                if (controller instanceof TimedController timedController) {
+                    controller = timedController.getController();
+                }
+                if (controller instanceof DeadlineController deadlineController) {
+                    // closing interrupts the late calls, so the ones that never returned are recorded first
+                    String callback = deadlineController.getUnfinishedCallback();
+                    if (callback != null) {
+                        unfinishedCalls.add("Elevator [" + deadlineController.getId() + "] never returned from " + callback);
+                    }
+                    deadlineController.close();
+                }
+            }
+        }
+    }
+
+    public void printReport() {
+
+        log.dump(Verbosity.EVENTS, printer -> {
+            waitingList.print(printer, time);
+            shadowElevators.printPeople(printer, time);
+        });
+        log.dump(Verbosity.SUMMARY, this::printSummary);
+        log.flush();
+    }
+
+    public void printSummary(PrintStream printer) {
+
+        printer.printf("[%s] Times up\n", SimTime.format(time));
+        // shadowElevators.printCounts(printer);
+        shadowElevators.printMaxes(printer);
+        for (ElevatorController controller : elevators.getElevators()) {
+            if (controller instanceof TimedController timedController) {
+                printer.printf("\tElevator [%s] decisions over budget: %d, max decision time: %dus\n",
+                        timedController.getId(), timedController.getBudgetViolations(), timedController.getLatencies().getMax() / 1_000L);
+                controller = timedController.getController();
+            }
+            if (controller instanceof DeadlineController deadlineController) {
+                printer.printf("\tElevator [%s] missed deadlines: %d\n",
+                        deadlineController.getId(), deadlineController.getDeadlineViolations());
+            }
+        }
+        printDurationHistogram(printer);
+
+        long numberOfPeople = durations.getTotalCount();
+        if (!durations.isEmpty()) {
+            long maxDuration = durations.getMax();
+            long averageDuration = durations.getSum() / numberOfPeople;
+
+            printer.println("Number of people taken = " + numberOfPeople);
+            printer.printf("Average waiting time = %dmn %ds\n",
+                    averageDuration % 3600 / 60, averageDuration % 60);
+            printer.printf("Max waiting time = %dh %dmn %ds\n",
+                    maxDuration / 3600 % 24, maxDuration % 3600 / 60, maxDuration % 60);
+            printer.printf("Waiting time p50 = %s, p90 = %s, p99 = %s, p99.9 = %s\n",
+                    SimTime.formatDuration(durations.getP50()), SimTime.formatDuration(durations.getP90()),
+                    SimTime.formatDuration(durations.getP99()), SimTime.formatDuration(durations.getP999()));
+            printer.println("People left in floors = " + waitingList.countPeople());
+            for (int elevatorIndex = 0; elevatorIndex < elevators.count(); elevatorIndex++) {
+                printer.println("People left in elevator [" + elevators.getElevatorId(elevatorIndex) + "] = "
+                        + shadowElevators.get(elevatorIndex).numberOfPeopleInElevator());
+            }
+        }
+    }
+
+    private long nextTimeFrom() {
+        // jumps to the next thing that can happen instead of ticking through empty time slots
+        long nextTime = endOfDay;
+        if (!events.isEmpty() && events.peekTime() < nextTime) {
+            nextTime = events.peekTime();
+        }
+        if (nextArrivalIndex < arrivals.size() && arrivals.getTime(nextArrivalIndex) < nextTime) {
+            nextTime = arrivals.getTime(nextArrivalIndex);
+        }
+        if (time < endTime && endTime < nextTime) {
+            nextTime = endTime;
+        }
+        return nextTime;
+    }
+
+    private int addNewPersonToWaitingLists(int arrivalIndex) {
+        int floor = arrivals.getOriginFloor(arrivalIndex);
+        Person person = arrivals.createPerson(arrivalIndex);
+        waitingList.addPersonToFloor(floor, person);
+        elevators.newPersonWaitingAtFloor(floor, person);
+        log.print(Verbosity.EVENTS, time, "\n[%s] %s calls the elevator from floor %d to go to floor %d\n", person.getName(), floor, person.getDestinationFloor());
+        if (log.isEnabled(Verbosity.FULL)) {
+            log.dump(Verbosity.FULL, printer -> {
+                printer.printf("Waiting list is now:\n");
+                waitingList.print(printer, time);
+            });
+        } else {
+            log.print(Verbosity.EVENTS, time, "People waiting on floor %2$d: %3$d\n", floor, waitingList.countPeopleAt(floor));
+        }
+        return 1;
+    }
+
+    private void printSnapshot(long snapshotTime) {
+        log.print(Verbosity.EVENTS, snapshotTime, "\n[%s] Snapshot\n");
+        log.dump(Verbosity.EVENTS, printer -> {
+            waitingList.print(printer, snapshotTime);
+            shadowElevators.printPeople(printer, snapshotTime);
+        });
+    }
+
+    void printDurationHistogram(PrintStream printer) {
+        for (int line = 0; line < DURATION_LIMITS.length; line++) {
+            long duration = DURATION_LIMITS[line];
+            printer.printf("%2dh %2dmn %2ds -> %d\n", duration / 3600, duration % 3600 / 60, duration % 60, durationCountsByLimit[line]);
+        }
+    }
+
+    public void addTravelDuration(long travelDuration) {
+        durations.record(travelDuration);
+        // a duration equal to a limit belongs to the line below it
+        int line = DURATION_LIMITS.length - 1;
+        while (line > 0 && travelDuration <= DURATION_LIMITS[line]) {
+            line--;
+        }
+        durationCountsByLimit[line]++;
+    }
+
+    public BuildingConfig getConfig() {
+        return config;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public RandomStreams getRandomStreams() {
+        return random;
+    }
+
+    public SimulationLog getLog() {
+        return log;
+    }
+
+    public WaitingList getWaitingList() {
+        return waitingList;
+    }
+
+    public Elevators getElevators() {
+        return elevators;
+    }
+
+    public BuildingState getBuildingState() {
+        return buildingState;
+    }
+
+    public ShadowElevators getShadowElevators() {
+        return shadowElevators;
+    }
+
+    // the calls still running at the end of the run, for the controllers called under a deadline
+    public List<String> getUnfinishedCalls() {
+        return unfinishedCalls;
+    }
+
+    public LatencyHistogram getDurations() {
+        return durations;
+    }
+
+    public int getTotalNumberOfPeople() {
+        return totalNumberOfPeople;
+    }
+}
@@ -0,0 +1,230 @@
+package org.paumard.elevator.system;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Formatter;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+public class SimulationLog implements AutoCloseable {
+
+    private static final int CAPACITY = 8192;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final SimulationLog OFF = new SimulationLog(Verbosity.OFF, null, null);
+
+    private final Verbosity level;
+    private final WritableByteChannel channel;
+    // null when the log owns its channel
+    private final OutputStream outputStream;
+
+    // the simulation thread only stores the format and its arguments,
+    // the formatting and the writing are done by the writer thread
+    private final BlockingQueue<Entry> entries;
+    private final Thread writer;
+    private IOException failure;
+
+    private SimulationLog(Verbosity level, WritableByteChannel channel, OutputStream outputStream) {
+        this.level = level;
+        this.channel = channel;
+        this.outputStream = outputStream;
+        if (level == Verbosity.OFF) {
+            this.entries = null;
+            this.writer = null;
+        } else {
+            this.entries = new ArrayBlockingQueue<>(CAPACITY);
+            this.writer = new Thread(this::write, "simulation-log");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+    }
+
+    public static SimulationLog off() {
+        return OFF;
+    }
+
+    public static SimulationLog toStandardOutput(Verbosity level) {
+        return to(System.out, level);
+    }
+
+    // the stream is flushed but not closed when the log is closed
+    public static SimulationLog to(OutputStream outputStream, Verbosity level) {
+        if (level == Verbosity.OFF) {
+            return OFF;
+        }
+        return new SimulationLog(level, Channels.newChannel(outputStream), outputStream);
+    }
+
+    public static SimulationLog toFile(Path path, Verbosity level) throws IOException {
+        if (level == Verbosity.OFF) {
+            return OFF;
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new SimulationLog(level, channel, null);
+    }
+
+    public Verbosity getLevel() {
+        return level;
+    }
+
+    public boolean isEnabled(Verbosity level) {
+        return this.level != Verbosity.OFF && this.level.compareTo(level) >= 0;
+    }
+
+    // in all the print methods, the time is the first argument of the format
+    public void print(Verbosity level, long time, String format) {
+        if (isEnabled(level)) {
+            put(new Entry(time, format, new Object[1], null, null));
+        }
+    }
+
+    public void print(Verbosity level, long time, String format, Object arg1) {
+        if (isEnabled(level)) {
+            put(new Entry(time, format, new Object[]{null, arg1}, null, null));
+        }
+    }
+
+    public void print(Verbosity level, long time, String format, Object arg1, Object arg2) {
+        if (isEnabled(level)) {
+            put(new Entry(time, format, new Object[]{null, arg1, arg2}, null, null));
+        }
+    }
+
+    public void print(Verbosity level, long time, String format, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(level)) {
+            put(new Entry(time, format, new Object[]{null, arg1, arg2, arg3}, null, null));
+        }
+    }
+
+    public void print(Verbosity level, long time, String format, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (isEnabled(level)) {
+            put(new Entry(time, format, new Object[]{null, arg1, arg2, arg3, arg4}, null, null));
+        }
+    }
+
+    // the dump reads the state of the simulation, so it is written on the calling thread
+    public void dump(Verbosity level, Consumer<PrintStream> dump) {
+        if (isEnabled(level)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            PrintStream printer = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+            dump.accept(printer);
+            printer.flush();
+            put(new Entry(0L, null, null, bytes.toString(StandardCharsets.UTF_8), null));
+        }
+    }
+
+    public void flush() {
+        if (level == Verbosity.OFF) {
+            return;
+        }
+        CountDownLatch written = new CountDownLatch(1);
+        put(new Entry(0L, null, null, null, written));
+        try {
+            written.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (level == Verbosity.OFF) {
+            return;
+        }
+        flush();
+        writer.interrupt();
+        try {
+            writer.join();
+            if (outputStream == null) {
+                channel.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void put(Entry entry) {
+        try {
+            entries.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write() {
+        StringBuilder text = new StringBuilder(BUFFER_SIZE);
+        Formatter formatter = new Formatter(text);
+        List<Entry> batch = new ArrayList<>(CAPACITY);
+        try {
+            while (true) {
+                batch.add(entries.take());
+                entries.drainTo(batch);
+                for (Entry entry : batch) {
+                    if (entry.written() != null) {
+                        writeOut(text);
+                        entry.written().countDown();
+                    } else if (entry.text() != null) {
+                        text.append(entry.text());
+                    } else {
+                        Object[] args = entry.args();
+                        args[0] = SimTime.format(entry.time());
+                        try {
+                            formatter.format(entry.format(), args);
+                        } catch (IllegalFormatException e) {
+                            text.append(entry.format());
+                        }
+                    }
+                    if (text.length() >= BUFFER_SIZE) {
+                        writeOut(text);
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    private void writeOut(StringBuilder text) {
+        if (text.length() == 0 || failure != null) {
+            text.setLength(0);
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+        text.setLength(0);
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (outputStream != null) {
+                outputStream.flush();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private record Entry(long time, String format, Object[] args, String text, CountDownLatch written) {
+    }
+}
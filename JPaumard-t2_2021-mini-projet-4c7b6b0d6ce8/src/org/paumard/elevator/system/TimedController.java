@@ -0,0 +1,167 @@
+package org.paumard.elevator.system;
+
+import org.paumard.elevator.ElevatorController;
+import org.paumard.elevator.model.Person;
+import org.paumard.elevator.stats.LatencyHistogram;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+
+// measures how long a controller takes to choose its next floors, and what it allocates doing so.
+// With a budget, a decision that takes longer is either flagged in the log or replaced by standing by at the current floor
+public class TimedController implements ElevatorController {
+
+    public enum BudgetMode {
+        // the late decision is used, and logged
+        FLAG,
+        // the late decision is dropped, the elevator stands by where it is and asks again
+        FALL_BACK
+    }
+
+    private static final long NO_BUDGET = Long.MAX_VALUE;
+
+    private final int elevatorIndex;
+    private final ElevatorController controller;
+    private final SimulationLog log;
+    private final long budgetNanos;
+    private final BudgetMode budgetMode;
+    private final com.sun.management.ThreadMXBean allocations;
+
+    // in nanoseconds
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private long allocatedBytes = 0L;
+    private long budgetViolations = 0L;
+    private boolean fallingBack = false;
+
+    private BuildingState buildingState;
+
+    // the index is the one the elevator gets when it is added to the engine
+    public TimedController(int elevatorIndex, ElevatorController controller) {
+        this(elevatorIndex, controller, SimulationLog.off(), null, BudgetMode.FLAG, false);
+    }
+
+    public TimedController(int elevatorIndex, ElevatorController controller, SimulationLog log, Duration budget,
+                           BudgetMode budgetMode, boolean measureAllocations) {
+        this.elevatorIndex = elevatorIndex;
+        this.controller = controller;
+        this.log = log;
+        this.budgetNanos = budget == null ? NO_BUDGET : budget.toNanos();
+        this.budgetMode = budgetMode;
+        this.allocations = measureAllocations ? allocationCounter() : null;
+    }
+
+    // null if this JVM cannot count the bytes allocated by a thread
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean allocations
+                && allocations.isThreadAllocatedMemorySupported()) {
+            allocations.setThreadAllocatedMemoryEnabled(true);
+            return allocations;
+        }
+        return null;
+    }
+
+    public ElevatorController getController() {
+        return controller;
+    }
+
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    public boolean isMeasuringAllocations() {
+        return allocations != null;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long getBudgetViolations() {
+        return budgetViolations;
+    }
+
+    @Override
+    public String getId() {
+        return controller.getId();
+    }
+
+    @Override
+    public void init(BuildingState buildingState) {
+        this.buildingState = buildingState;
+        controller.init(buildingState);
+    }
+
+    @Override
+    public boolean isFallingBack() {
+        return fallingBack || controller.isFallingBack();
+    }
+
+    @Override
+    public List<Integer> chooseNextFloors() {
+        fallingBack = false;
+        long allocatedBefore = allocations == null ? 0L : allocations.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        List<Integer> nextFloors = controller.chooseNextFloors();
+        long latency = System.nanoTime() - start;
+        if (allocations != null) {
+            allocatedBytes += allocations.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        }
+        latencies.record(latency);
+
+        if (latency > budgetNanos) {
+            budgetViolations++;
+            log.print(Verbosity.EVENTS, buildingState.getSimTime(),
+                    "[%s] Elevator [%s] took %dus to choose its next floors, over its budget of %dus\n",
+                    getId(), latency / 1_000L, budgetNanos / 1_000L);
+            if (budgetMode == BudgetMode.FALL_BACK) {
+                fallingBack = true;
+                return List.of(buildingState.getFloorOf(elevatorIndex));
+            }
+        }
+        return nextFloors;
+    }
+
+    @Override
+    public void startsAtFloor(LocalTime time, int initialFloor) {
+        controller.startsAtFloor(time, initialFloor);
+    }
+
+    @Override
+    public void arriveAtFloor(int floor) {
+        controller.arriveAtFloor(floor);
+    }
+
+    @Override
+    public void onHallCall(int floor, Person person) {
+        controller.onHallCall(floor, person);
+    }
+
+    @Override
+    public void onBoarded(int floor, List<Person> people) {
+        controller.onBoarded(floor, people);
+    }
+
+    @Override
+    public void onAlighted(int floor, List<Person> people) {
+        controller.onAlighted(floor, people);
+    }
+
+    @Override
+    public void lastPersonArrived() {
+        controller.lastPersonArrived();
+    }
+
+    @Override
+    public void timeIs(LocalTime time) {
+        controller.timeIs(time);
+    }
+
+    @Override
+    public void standByAtFloor(int currentFloor) {
+        controller.standByAtFloor(currentFloor);
+    }
+}
@@ -0,0 +1,346 @@
+package org.paumard.elevator.system;
+
+import org.paumard.elevator.BuildingConfig;
+import org.paumard.elevator.Elevator;
+import org.paumard.elevator.model.ArrivalGenerator;
+import org.paumard.elevator.model.Arrivals;
+import org.paumard.elevator.model.Person;
+import org.paumard.elevator.model.RandomStreams;
+import org.paumard.elevator.stats.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.paumard.elevator.Building.SEED;
+
+// runs every Elevator found in the student package over the same days, and ranks them by the average waiting time
+// of everyone who arrived, the people left behind waiting until the end of the day.
+// An implementation competes if it is a public concrete class with a public (int capacity, String id) constructor.
+// An implementation that fails on one day is disqualified, and one that takes too long to decide falls back
+public class Tournament {
+
+    public static final String STUDENT_PACKAGE = "org.paumard.elevator.student";
+    public static final Duration DECISION_DEADLINE = Duration.ofMillis(100);
+
+    private final BuildingConfig config;
+    private final List<Class<? extends Elevator>> implementations;
+    private final int numberOfDays;
+    private final long masterSeed;
+    private final int parallelism;
+
+    // each building has the elevators of the config, all of the same implementation
+    public Tournament(BuildingConfig config, List<Class<? extends Elevator>> implementations, int numberOfDays,
+                      long masterSeed, int parallelism) {
+        this.config = config;
+        this.implementations = implementations;
+        this.numberOfDays = numberOfDays;
+        this.masterSeed = masterSeed;
+        this.parallelism = parallelism;
+    }
+
+    public static void main(String[] args) {
+
+        int numberOfDays = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        BuildingConfig config = args.length > 2 ? BuildingConfig.load(Path.of(args[2])) : BuildingConfig.getDefault();
+
+        List<Class<? extends Elevator>> implementations = findImplementations(STUDENT_PACKAGE);
+        if (implementations.isEmpty()) {
+            System.out.println("No elevator found in " + STUDENT_PACKAGE);
+            return;
+        }
+
+        Tournament tournament = new Tournament(config, implementations, numberOfDays, SEED, parallelism);
+        tournament.run().print(System.out);
+    }
+
+    public static List<Class<? extends Elevator>> findImplementations(String packageName) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        String path = packageName.replace('.', '/');
+        Set<String> classNames = new TreeSet<>();
+        try {
+            for (URL url : Collections.list(classLoader.getResources(path))) {
+                if (url.getProtocol().equals("file")) {
+                    try (Stream<Path> files = Files.list(Path.of(url.toURI()))) {
+                        files.map(file -> file.getFileName().toString())
+                                .filter(name -> name.endsWith(".class"))
+                                .forEach(name -> classNames.add(packageName + "." + name.substring(0, name.length() - ".class".length())));
+                    }
+                } else if (url.getProtocol().equals("jar")) {
+                    JarURLConnection connection = (JarURLConnection) url.openConnection();
+                    connection.setUseCaches(false);
+                    try (JarFile jar = connection.getJarFile()) {
+                        jar.stream()
+                                .map(JarEntry::getName)
+                                .filter(name -> name.startsWith(path + "/") && name.endsWith(".class")
+                                        && name.indexOf('/', path.length() + 1) < 0)
+                                .forEach(name -> classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.')));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+
+        List<Class<? extends Elevator>> implementations = new ArrayList<>();
+        for (String className : classNames) {
+            try {
+                Class<?> type = Class.forName(className, false, classLoader);
+                if (isCompetitor(type)) {
+                    implementations.add(type.asSubclass(Elevator.class));
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                // not a class that can compete
+            }
+        }
+        return implementations;
+    }
+
+    private static boolean isCompetitor(Class<?> type) {
+        if (!Elevator.class.isAssignableFrom(type) || type.isInterface()
+                || Modifier.isAbstract(type.getModifiers()) || !Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+        try {
+            type.getConstructor(int.class, String.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    public Leaderboard run() {
+
+        // every implementation meets the same people on the same days
+        long[] seeds = new long[numberOfDays];
+        List<Arrivals> days = new ArrayList<>();
+        SplittableRandom seedGenerator = new SplittableRandom(masterSeed);
+        for (int day = 0; day < numberOfDays; day++) {
+            seeds[day] = seedGenerator.nextLong();
+            days.add(new ArrivalGenerator(config, new RandomStreams(seeds[day])).generate(config.getStartTime(), config.getEndTime()));
+        }
+
+        List<Callable<Run>> runs = new ArrayList<>();
+        for (Class<? extends Elevator> implementation : implementations) {
+            for (int day = 0; day < numberOfDays; day++) {
+                long seed = seeds[day];
+                Arrivals arrivals = days.get(day);
+                runs.add(() -> runDayOrFail(implementation, seed, arrivals));
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Map<Class<? extends Elevator>, Entry> entries = new LinkedHashMap<>();
+            implementations.forEach(implementation -> entries.put(implementation, new Entry(implementation.getSimpleName())));
+            for (Future<Run> future : pool.invokeAll(runs)) {
+                Run run = future.get();
+                entries.get(run.implementation()).add(run);
+            }
+            return new Leaderboard(numberOfDays, new ArrayList<>(entries.values()));
+        } catch (Exception e) {
+            throw new IllegalStateException("Tournament failed", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // the failure of one implementation does not stop the others
+    private Run runDayOrFail(Class<? extends Elevator> implementation, long seed, Arrivals arrivals) {
+        try {
+            return runDay(implementation, seed, arrivals);
+        } catch (Exception | LinkageError | StackOverflowError e) {
+            Throwable cause = e instanceof InvocationTargetException && e.getCause() != null ? e.getCause() : e;
+            return Run.failed(implementation, cause.toString());
+        }
+    }
+
+    private Run runDay(Class<? extends Elevator> implementation, long seed, Arrivals arrivals) throws ReflectiveOperationException {
+
+        SimulationEngine engine = new SimulationEngine(config, seed, SimulationLog.off());
+        engine.setArrivals(arrivals);
+        // an implementation that never returns does not hang the tournament
+        engine.setControllerDeadline(DECISION_DEADLINE, Fallback.HOLD_CURRENT_FLOOR);
+        Constructor<? extends Elevator> constructor = implementation.getConstructor(int.class, String.class);
+        for (int index = 1; index <= config.getNumberOfElevators(); index++) {
+            engine.addElevator(constructor.newInstance(config.getElevatorCapacity(), implementation.getSimpleName() + " " + index));
+        }
+
+        long start = System.nanoTime();
+        engine.run();
+        long wallNanos = System.nanoTime() - start;
+        // an implementation still stuck in a call at the end of the day never returned from it
+        if (!engine.getUnfinishedCalls().isEmpty()) {
+            return Run.failed(implementation, engine.getUnfinishedCalls().get(0));
+        }
+
+        // the people left behind are charged their wait up to the end of the day
+        LatencyHistogram waits = new LatencyHistogram();
+        waits.merge(engine.getDurations());
+        long endOfDay = SimTime.of(config.getEndOfDay());
+        List<Person> peopleLeft = new ArrayList<>();
+        engine.getWaitingList().getView().getLists().forEach(peopleLeft::addAll);
+        ShadowElevators shadowElevators = engine.getShadowElevators();
+        for (int index = 0; index < shadowElevators.count(); index++) {
+            peopleLeft.addAll(shadowElevators.get(index).getPeople());
+        }
+        for (Person person : peopleLeft) {
+            waits.record(Long.max(0L, endOfDay - person.getArrivalSimTime()));
+        }
+
+        return new Run(implementation, engine.getDurations(), waits,
+                engine.getWaitingList().countPeople(), shadowElevators.countPeopleInElevators(),
+                engine.getTime() - engine.getStartTime(), wallNanos, null);
+    }
+
+    // durations are the ones of the people taken, waits are the ones of everyone who arrived;
+    // failure is null if the run went to the end of the day
+    private record Run(Class<? extends Elevator> implementation, LatencyHistogram durations, LatencyHistogram waits,
+                       int peopleLeftAtFloors, int peopleLeftInElevators, long simulatedSeconds, long wallNanos,
+                       String failure) {
+
+        static Run failed(Class<? extends Elevator> implementation, String failure) {
+            return new Run(implementation, new LatencyHistogram(), new LatencyHistogram(), 0, 0, 0L, 0L, failure);
+        }
+    }
+
+    public static class Entry {
+
+        private final String name;
+        private final LatencyHistogram durations = new LatencyHistogram();
+        private final LatencyHistogram waits = new LatencyHistogram();
+        private long peopleLeftAtFloors = 0L;
+        private long peopleLeftInElevators = 0L;
+        private long simulatedSeconds = 0L;
+        private long wallNanos = 0L;
+        private int numberOfDays = 0;
+        // the first failure, null if there is none
+        private String failure;
+
+        Entry(String name) {
+            this.name = name;
+        }
+
+        void add(Run run) {
+            if (run.failure() != null) {
+                if (failure == null) {
+                    failure = run.failure();
+                }
+                return;
+            }
+            durations.merge(run.durations());
+            waits.merge(run.waits());
+            peopleLeftAtFloors += run.peopleLeftAtFloors();
+            peopleLeftInElevators += run.peopleLeftInElevators();
+            simulatedSeconds += run.simulatedSeconds();
+            wallNanos += run.wallNanos();
+            numberOfDays++;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isDisqualified() {
+            return failure != null;
+        }
+
+        public String getFailure() {
+            return failure;
+        }
+
+        public LatencyHistogram getDurations() {
+            return durations;
+        }
+
+        public double getAverageWaitingSeconds() {
+            return durations.getMean();
+        }
+
+        // everyone who arrived, the people left behind waiting until the end of the day
+        public LatencyHistogram getWaits() {
+            return waits;
+        }
+
+        public double getAverageWaitOfEveryone() {
+            return waits.getMean();
+        }
+
+        public double getPeopleLeftAtFloorsPerDay() {
+            return (double) peopleLeftAtFloors / numberOfDays;
+        }
+
+        public double getPeopleLeftInElevatorsPerDay() {
+            return (double) peopleLeftInElevators / numberOfDays;
+        }
+
+        // simulated seconds per wall second, on one thread
+        public double getThroughput() {
+            return wallNanos == 0L ? Double.NaN : simulatedSeconds * 1e9d / wallNanos;
+        }
+    }
+
+    public static class Leaderboard {
+
+        private final int numberOfDays;
+        private final List<Entry> entries;
+
+        Leaderboard(int numberOfDays, List<Entry> entries) {
+            this.numberOfDays = numberOfDays;
+            // leaving people behind costs their wait until the end of the day, the disqualified ones are ranked last
+            this.entries = entries.stream()
+                    .sorted(Comparator.comparing(Entry::isDisqualified)
+                            .thenComparingDouble((Entry entry) ->
+                                    entry.getWaits().isEmpty() ? Double.MAX_VALUE : entry.getAverageWaitOfEveryone()))
+                    .collect(Collectors.toList());
+        }
+
+        public List<Entry> getEntries() {
+            return entries;
+        }
+
+        public void print(PrintStream printer) {
+            printer.printf("Leaderboard over %d days\n", numberOfDays);
+            printer.printf("%-4s %-24s %10s %12s %12s %12s %12s %12s %12s %14s\n",
+                    "Rank", "Elevator", "Taken", "Left floors", "Left cars", "Mean wait", "Max wait", "All wait*", "p95 all*", "Sim s / s");
+            int rank = 1;
+            for (Entry entry : entries) {
+                if (entry.isDisqualified()) {
+                    printer.printf("%-4s %-24s disqualified: %s\n", "DQ", entry.getName(), entry.getFailure());
+                    continue;
+                }
+                LatencyHistogram durations = entry.getDurations();
+                LatencyHistogram waits = entry.getWaits();
+                printer.printf("%-4d %-24s %10d %12.1f %12.1f %12s %12s %12s %12s %14.0f\n",
+                        rank++, entry.getName(), durations.getTotalCount(),
+                        entry.getPeopleLeftAtFloorsPerDay(), entry.getPeopleLeftInElevatorsPerDay(),
+                        SimTime.formatDuration(Math.round(durations.isEmpty() ? 0d : entry.getAverageWaitingSeconds())),
+                        SimTime.formatDuration(durations.getMax()),
+                        SimTime.formatDuration(Math.round(waits.isEmpty() ? 0d : entry.getAverageWaitOfEveryone())),
+                        SimTime.formatDuration(waits.getValueAtPercentile(95d)),
+                        entry.getThroughput());
+            }
+            printer.println("* everyone who arrived, the people left behind waiting until the end of the day");
+        }
+    }
+}
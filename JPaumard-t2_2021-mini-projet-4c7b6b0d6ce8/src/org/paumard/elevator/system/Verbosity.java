@@ -0,0 +1,11 @@
+package org.paumard.elevator.system;
+
+public enum Verbosity {
+    OFF,
+    // only the report at the end of the run
+    SUMMARY,
+    // only what changed: calls, loads, unloads and moves
+    EVENTS,
+    // also the whole waiting list each time someone calls an elevator
+    FULL
+}